@@ -12,8 +12,14 @@ plugins {
     id("io.github.gradle-nexus.publish-plugin") version "1.3.0"
 }
 
+sourceSets {
+    // generator of the UTS46 tables, only run at build time
+    create("generator")
+}
+
 dependencies {
-    implementation ("com.ibm.icu:icu4j:73.2")
+    // ICU is only used to generate the UTS46 tables from its Unicode data, it is not a runtime dependency
+    "generatorImplementation"("com.ibm.icu:icu4j:73.2")
     testImplementation("com.google.code.gson:gson:2.10.1")
     testImplementation("org.assertj:assertj-core:3.24.2")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
@@ -54,6 +60,24 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// generate the UTS46 tables (mapping, normalization, bidi and joining data) loaded by Uts46
+val generateUts46Tables by tasks.registering(JavaExec::class) {
+    val outputDir = layout.buildDirectory.dir("generated/resources/uts46")
+    classpath = sourceSets["generator"].runtimeClasspath
+    mainClass.set("io.github.stephanebastian.whatwg.url.impl.Uts46TableGenerator")
+    argumentProviders.add(CommandLineArgumentProvider { listOf(outputDir.get().asFile.absolutePath) })
+    outputs.dir(outputDir)
+}
+
+sourceSets.main {
+    resources.srcDir(generateUts46Tables)
+}
+
+jmh {
+    // report allocation rates (gc.alloc.rate.norm) next to throughput
+    profilers.add("gc")
+}
+
 publishing {
     publications {
         create<MavenPublication>("mavenJava") {
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.lang.UCharacterDirection;
+import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.text.Normalizer2;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generate the tables of Uts46 from the Unicode data held by ICU4J. The generator only
+ * runs at build time, ICU4J is not needed at runtime<br>
+ * <br>
+ * The tables are written to uts46.dat, with a {@link DataOutputStream}, in this order:
+ * <ul>
+ * <li>the Unicode version of the data</li>
+ * <li>the mapping: int count, int[count] starts, int[count] values, int length, char[length]
+ * pool. Each value applies from its start up to the next start. The two low bits are the kind of
+ * the mapping: {@link #DELTA} (the mapped codepoint is the codepoint plus the data, a valid
+ * codepoint being mapped with a delta of 0), {@link #STRING} (the data holds the offset in the pool
+ * and the length of the mapping), {@link #IGNORED} or {@link #DISALLOWED}. The next bit is
+ * {@link #STABLE}, the data is in the remaining bits. Mappings are fully decomposed (NFD), Hangul
+ * syllables excepted</li>
+ * <li>the canonical combining classes: int count, int[count] starts, byte[count] values</li>
+ * <li>the canonical compositions: int count, then count times int first, int second, int
+ * composite. Hangul syllables are composed algorithmically and are not part of them</li>
+ * <li>the bidi classes, with the values of Uts46: int count, int[count] starts,
+ * byte[count] values</li>
+ * <li>the joining types, with the values of Uts46: same layout</li>
+ * <li>the combining marks (General_Category=Mark), 1 for a mark: same layout</li>
+ * </ul>
+ */
+public class Uts46TableGenerator {
+  // kinds of mapping, the same as the ones of Uts46
+  static final int DELTA = 0;
+  static final int STRING = 1;
+  static final int IGNORED = 2;
+  static final int DISALLOWED = 3;
+  // the codepoint is mapped to itself, and normalization never combines or reorders it with the
+  // codepoints before it: a string of stable codepoints is mapped and normalized already
+  static final int STABLE = 4;
+  private static final int DATA_SHIFT = 3;
+  private static final int STRING_LENGTH_BITS = 6;
+  // bidi classes, the same as the ones of Uts46
+  private static final int BIDI_OTHER = 0;
+  private static final int BIDI_L = 1;
+  private static final int BIDI_R = 2;
+  private static final int BIDI_AL = 3;
+  private static final int BIDI_AN = 4;
+  private static final int BIDI_EN = 5;
+  private static final int BIDI_ES = 6;
+  private static final int BIDI_CS = 7;
+  private static final int BIDI_ET = 8;
+  private static final int BIDI_ON = 9;
+  private static final int BIDI_BN = 10;
+  private static final int BIDI_NSM = 11;
+  // joining types, the same as the ones of Uts46
+  private static final int JOINING_OTHER = 0;
+  private static final int JOINING_D = 1;
+  private static final int JOINING_L = 2;
+  private static final int JOINING_R = 3;
+  private static final int JOINING_T = 4;
+  private static final int HANGUL_FIRST = 0xAC00;
+  private static final int HANGUL_LAST = 0xD7A3;
+  private static final int GC_M_MASK = (1 << UCharacter.NON_SPACING_MARK)
+      | (1 << UCharacter.ENCLOSING_MARK) | (1 << UCharacter.COMBINING_SPACING_MARK);
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("usage: Uts46TableGenerator <output directory>");
+    }
+    File directory = new File(args[0], "io/github/stephanebastian/whatwg/url/impl");
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create " + directory);
+    }
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(new File(directory, "uts46.dat"))))) {
+      output.writeUTF(UCharacter.getUnicodeVersion().toString());
+      writeMapping(output);
+      writeCombiningClasses(output);
+      writeCompositions(output);
+      writeRanges(output, Uts46TableGenerator::bidiClass);
+      writeRanges(output, Uts46TableGenerator::joiningType);
+      writeRanges(output, codepoint -> (UCharacter.getIntPropertyValue(codepoint,
+          UProperty.GENERAL_CATEGORY_MASK) & GC_M_MASK) != 0 ? 1 : 0);
+    }
+  }
+
+  /**
+   * The UTS46 mapping of every codepoint, followed by the canonical decomposition of the result.
+   * The uts46 normalization data of ICU maps disallowed codepoints to U+FFFD, and removes ignored
+   * codepoints
+   */
+  private static void writeMapping(DataOutputStream output) throws IOException {
+    Normalizer2 uts46 = Normalizer2.getInstance(null, "uts46", Normalizer2.Mode.DECOMPOSE);
+    Normalizer2 uts46Composed = Normalizer2.getInstance(null, "uts46", Normalizer2.Mode.COMPOSE);
+    Normalizer2 nfc = Normalizer2.getNFCInstance();
+    List<Integer> starts = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+    StringBuilder pool = new StringBuilder();
+    Map<String, Integer> poolOffsets = new HashMap<>();
+    int previous = -1;
+    for (int codepoint = 0; codepoint <= Character.MAX_CODE_POINT; codepoint++) {
+      int value;
+      if (Character.getType(codepoint) == Character.SURROGATE) {
+        value = DISALLOWED;
+      } else if (codepoint >= HANGUL_FIRST && codepoint <= HANGUL_LAST) {
+        // Hangul syllables are valid, they are not decomposed so that they need no composition
+        value = DELTA | STABLE;
+      } else {
+        String codepointString = new String(Character.toChars(codepoint));
+        String mapping = uts46.normalize(codepointString);
+        if (mapping.isEmpty()) {
+          value = IGNORED;
+        } else if (mapping.equals("\uFFFD") && codepoint != 0xFFFD) {
+          value = DISALLOWED;
+        } else if (mapping.codePointCount(0, mapping.length()) == 1) {
+          value = (mapping.codePointAt(0) - codepoint) << DATA_SHIFT | DELTA;
+        } else {
+          if (mapping.length() >= 1 << STRING_LENGTH_BITS) {
+            throw new IllegalStateException("mapping too long: " + codepoint);
+          }
+          Integer offset = poolOffsets.get(mapping);
+          if (offset == null) {
+            offset = pool.length();
+            pool.append(mapping);
+            poolOffsets.put(mapping, offset);
+          }
+          value = (offset << STRING_LENGTH_BITS | mapping.length()) << DATA_SHIFT | STRING;
+        }
+        if (uts46Composed.normalize(codepointString).equals(codepointString)
+            && nfc.hasBoundaryBefore(codepoint)) {
+          value |= STABLE;
+        }
+      }
+      // a new range starts unless the codepoint extends the previous one: same delta, or same
+      // kind without data
+      if (value != previous || (value & 3) == STRING) {
+        starts.add(codepoint);
+        values.add(value);
+        previous = value;
+      }
+    }
+    output.writeInt(starts.size());
+    for (int start : starts) {
+      output.writeInt(start);
+    }
+    for (int value : values) {
+      output.writeInt(value);
+    }
+    output.writeInt(pool.length());
+    output.writeChars(pool.toString());
+  }
+
+  private static void writeCombiningClasses(DataOutputStream output) throws IOException {
+    Normalizer2 nfc = Normalizer2.getNFCInstance();
+    writeRanges(output, nfc::getCombiningClass);
+  }
+
+  /**
+   * The primary composites: codepoints whose canonical decomposition is made of two codepoints and
+   * which are not excluded from composition
+   */
+  private static void writeCompositions(DataOutputStream output) throws IOException {
+    Normalizer2 nfc = Normalizer2.getNFCInstance();
+    List<int[]> compositions = new ArrayList<>();
+    for (int codepoint = 0; codepoint <= Character.MAX_CODE_POINT; codepoint++) {
+      if (codepoint >= HANGUL_FIRST && codepoint <= HANGUL_LAST) {
+        continue;
+      }
+      String decomposition = nfc.getRawDecomposition(codepoint);
+      if (decomposition == null
+          || decomposition.codePointCount(0, decomposition.length()) != 2) {
+        continue;
+      }
+      int first = decomposition.codePointAt(0);
+      int second = decomposition.codePointAt(Character.charCount(first));
+      if (nfc.composePair(first, second) == codepoint) {
+        compositions.add(new int[] {first, second, codepoint});
+      }
+    }
+    compositions.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0])
+        : Integer.compare(a[1], b[1]));
+    output.writeInt(compositions.size());
+    for (int[] composition : compositions) {
+      output.writeInt(composition[0]);
+      output.writeInt(composition[1]);
+      output.writeInt(composition[2]);
+    }
+  }
+
+  private static int bidiClass(int codepoint) {
+    switch (UCharacter.getDirection(codepoint)) {
+      case UCharacterDirection.LEFT_TO_RIGHT:
+        return BIDI_L;
+      case UCharacterDirection.RIGHT_TO_LEFT:
+        return BIDI_R;
+      case UCharacterDirection.RIGHT_TO_LEFT_ARABIC:
+        return BIDI_AL;
+      case UCharacterDirection.ARABIC_NUMBER:
+        return BIDI_AN;
+      case UCharacterDirection.EUROPEAN_NUMBER:
+        return BIDI_EN;
+      case UCharacterDirection.EUROPEAN_NUMBER_SEPARATOR:
+        return BIDI_ES;
+      case UCharacterDirection.COMMON_NUMBER_SEPARATOR:
+        return BIDI_CS;
+      case UCharacterDirection.EUROPEAN_NUMBER_TERMINATOR:
+        return BIDI_ET;
+      case UCharacterDirection.OTHER_NEUTRAL:
+        return BIDI_ON;
+      case UCharacterDirection.BOUNDARY_NEUTRAL:
+        return BIDI_BN;
+      case UCharacterDirection.DIR_NON_SPACING_MARK:
+        return BIDI_NSM;
+      default:
+        return BIDI_OTHER;
+    }
+  }
+
+  private static int joiningType(int codepoint) {
+    switch (UCharacter.getIntPropertyValue(codepoint, UProperty.JOINING_TYPE)) {
+      case UCharacter.JoiningType.DUAL_JOINING:
+        return JOINING_D;
+      case UCharacter.JoiningType.LEFT_JOINING:
+        return JOINING_L;
+      case UCharacter.JoiningType.RIGHT_JOINING:
+        return JOINING_R;
+      case UCharacter.JoiningType.TRANSPARENT:
+        return JOINING_T;
+      default:
+        return JOINING_OTHER;
+    }
+  }
+
+  /**
+   * Write a property of all the codepoints as ranges of codepoints sharing the same value
+   */
+  private static void writeRanges(DataOutputStream output, Property property)
+      throws IOException {
+    List<Integer> starts = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+    for (int codepoint = 0; codepoint <= Character.MAX_CODE_POINT; codepoint++) {
+      int value = property.valueOf(codepoint);
+      if (value < 0 || value > 0xFF) {
+        throw new IllegalStateException("value out of range: " + codepoint);
+      }
+      if (values.isEmpty() || values.get(values.size() - 1).intValue() != value) {
+        starts.add(codepoint);
+        values.add(value);
+      }
+    }
+    output.writeInt(starts.size());
+    for (int start : starts) {
+      output.writeInt(start);
+    }
+    for (int value : values) {
+      output.writeByte(value);
+    }
+  }
+
+  private interface Property {
+    int valueOf(int codepoint);
+  }
+}
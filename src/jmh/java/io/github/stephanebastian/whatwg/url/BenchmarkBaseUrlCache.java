@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Resolve links against a handful of base url strings, with and without a BaseUrlCache shared by
+ * all the threads
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class BenchmarkBaseUrlCache {
+  private static final String[] BASE_URLS = {"https://www.example.com/news/world/article.html",
+      "https://www.example.com/sport/football/results.html?season=2023",
+      "https://blog.example.org/2023/05/some-post/", "https://shop.example.net/catalog/item?id=42",
+      "https://docs.example.io/guide/getting-started/index.html#install"};
+  private static final String[] LINKS = {"other-article.html", "../../index.html",
+      "/category/world?page=2", "#section-2", "?sort=date"};
+  private BaseUrlCache cache;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    cache = BaseUrlCache.create(1024);
+  }
+
+  @Benchmark
+  public void cachedBase(Blackhole blackhole) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    blackhole.consume(cache.create(LINKS[random.nextInt(LINKS.length)],
+        BASE_URLS[random.nextInt(BASE_URLS.length)]));
+  }
+
+  @Benchmark
+  public void stringBase(Blackhole blackhole) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    blackhole.consume(Url.create(LINKS[random.nextInt(LINKS.length)],
+        BASE_URLS[random.nextInt(BASE_URLS.length)]));
+  }
+}
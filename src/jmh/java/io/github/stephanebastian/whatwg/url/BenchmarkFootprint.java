@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measure the heap retained by parsed urls, reported by the bytesPerUrl counter. Each invocation
+ * parses and keeps numberOfUrls urls, the heap used is measured after a garbage collection, before
+ * and after parsing, it includes the slot of each url in the array. The time reported is not
+ * relevant
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BenchmarkFootprint {
+  @Param({"1000000"})
+  private int numberOfUrls;
+  @Param({"mutable", "frozen"})
+  private String representation;
+  private String[] inputs;
+  private Url[] urls;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    inputs = new String[numberOfUrls];
+    for (int i = 0; i < numberOfUrls; i++) {
+      switch (i % 4) {
+        case 0:
+          inputs[i] = "https://www" + (i % 2000) + ".example.com/";
+          break;
+        case 1:
+          inputs[i] = "https://www" + (i % 2000) + ".example.com/catalog/" + (i % 50) + "/item-" + i
+              + ".html?ref=home&id=" + i;
+          break;
+        case 2:
+          inputs[i] = "http://192.168." + (i % 250) + "." + (i % 200) + ":8080/status#" + i;
+          break;
+        default:
+          inputs[i] = "https://user@api" + (i % 20) + ".example.net/v1/orders/" + i;
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void beforeInvocation() {
+    urls = null;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  @Benchmark
+  public Url[] parse(Footprint footprint) {
+    long usedHeapBefore = usedHeap();
+    Url[] result = new Url[numberOfUrls];
+    boolean frozen = "frozen".equals(representation);
+    for (int i = 0; i < numberOfUrls; i++) {
+      Url url = Url.create(inputs[i]);
+      result[i] = frozen ? url.freeze() : url;
+    }
+    urls = result;
+    footprint.bytesPerUrl = (usedHeap() - usedHeapBefore) / numberOfUrls;
+    return result;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long bytesPerUrl;
+
+    @Setup(Level.Iteration)
+    public void beforeIteration() {
+      bytesPerUrl = 0;
+    }
+  }
+}
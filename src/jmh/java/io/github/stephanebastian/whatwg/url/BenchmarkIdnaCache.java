@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse urls with internationalized hosts on all the available threads, with and without an
+ * IdnaCache installed. The hosts are drawn from fewer domains than the capacity of the cache, so
+ * that the cached workload is hit-heavy and measures how the cache scales across threads
+ */
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class BenchmarkIdnaCache {
+  private static final int CAPACITY = 4096;
+  private static final String[] DOMAINS =
+      {"bücher.de", "münchen.de", "例え.テスト", "中国.cn", "россия.рф", "ελλάδα.gr", "한국.kr"};
+  @Param({"true", "false"})
+  private boolean cached;
+  private String[] urls;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    IdnaCache.install(cached ? IdnaCache.create(CAPACITY) : null);
+    urls = new String[CAPACITY / 4];
+    for (int i = 0; i < urls.length; i++) {
+      urls[i] = "https://shop" + (i % 128) + "." + DOMAINS[i % DOMAINS.length] + "/items/" + i;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void afterBenchmark() {
+    IdnaCache.install(null);
+  }
+
+  @Benchmark
+  public void create(Blackhole blackhole) {
+    blackhole.consume(Url.create(urls[ThreadLocalRandom.current().nextInt(urls.length)]));
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse urls whose fragment, query or opaque path grows from 1KB to 1MB. Parse time is expected to
+ * grow linearly with the size of the input: the average time divided by the size should remain
+ * roughly constant from one size to the next
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkInputScaling {
+  @Param({"1024", "16384", "131072", "1048576"})
+  private int size;
+  @Param({"fragment", "query", "opaque-path"})
+  private String component;
+  private UrlParser parser;
+  private String url;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    parser = UrlParser.create();
+    StringBuilder result = new StringBuilder();
+    switch (component) {
+      case "fragment":
+        result.append("https://www.example.com/app#/route");
+        break;
+      case "query":
+        result.append("https://www.example.com/search?q=");
+        break;
+      default:
+        result.append("data:text/plain,");
+    }
+    while (result.length() < size) {
+      // no question mark or number sign, which would end an opaque path
+      result.append("/segment&a=1&b=%7B%22c%22%3A2%7D");
+    }
+    url = result.substring(0, size);
+  }
+
+  @Benchmark
+  public void doBenchmark(Blackhole blackhole) {
+    blackhole.consume(parser.parse(url));
+  }
+}
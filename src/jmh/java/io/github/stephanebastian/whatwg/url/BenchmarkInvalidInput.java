@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compare the throughput of invalid inputs when failures are reported by throwing a
+ * ValidationException (Url.create) and when they are reported through the returned value
+ * (Url.tryCreate)
+ */
+@State(Scope.Thread)
+public class BenchmarkInvalidInput {
+  private static final List<String> INVALID_URLS = Arrays.asList("www.example.com/path",
+      "http://user@/path", "http://www.example.com:8a/", "http://www.example.com:65536/",
+      "http://[::1/", "http://[1:2:3:4:5:6:7:8:9]/", "http://1.2.3.4.5/",
+      "http://exa%23mple.org/", "foo://exa[mple.org/", "https://xn--/", "/relative/path",
+      "mailto");
+  private int urlIndex = 0;
+
+  String nextUrl() {
+    urlIndex++;
+    if (urlIndex >= INVALID_URLS.size()) {
+      urlIndex = 0;
+    }
+    return INVALID_URLS.get(urlIndex);
+  }
+
+  @Benchmark
+  public void create(Blackhole blackhole) {
+    try {
+      blackhole.consume(Url.create(nextUrl()));
+    } catch (ValidationException e) {
+      blackhole.consume(e.validationError());
+    }
+  }
+
+  @Benchmark
+  public void tryCreate(Blackhole blackhole) {
+    blackhole.consume(Url.tryCreate(nextUrl()).failure());
+  }
+}
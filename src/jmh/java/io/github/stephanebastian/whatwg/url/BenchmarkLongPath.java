@@ -0,0 +1,49 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse urls with a long path, made of segments that need percent-encoding or not. Run with the
+ * gc profiler: gc.alloc.rate.norm should be in the range of the size of the resulting url (path
+ * segments and serialized strings), with no per-character overhead
+ */
+@State(Scope.Thread)
+public class BenchmarkLongPath {
+  @Param({"100", "1000", "10000"})
+  private int pathLength;
+  @Param({"plain", "encoded"})
+  private String segments;
+  private UrlParser parser;
+  private String url;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    parser = UrlParser.create();
+    String segment = "plain".equals(segments) ? "/segment" : "/ség m‰nt";
+    StringBuilder result = new StringBuilder("https://www.example.com");
+    while (result.length() < pathLength) {
+      result.append(segment);
+    }
+    url = result.toString();
+  }
+
+  @Benchmark
+  public void doBenchmark(Blackhole blackhole) {
+    blackhole.consume(parser.parse(url));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Resolve the links of a page against the url of the page, either given as a string, parsed for
+ * each link, or as a Url parsed once
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkResolveLinks {
+  private static final String BASE_URL =
+      "https://www.example.com/news/2023/world/some-article-title.html?ref=home#top";
+  @Param({"10", "300"})
+  private int numberOfLinks;
+  private List<String> links;
+  private Url base;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    base = Url.create(BASE_URL);
+    links = new ArrayList<>(numberOfLinks);
+    for (int i = 0; i < numberOfLinks; i++) {
+      switch (i % 5) {
+        case 0:
+          links.add("other-article-" + i + ".html");
+          break;
+        case 1:
+          links.add("../../" + i + "/index.html");
+          break;
+        case 2:
+          links.add("/category/" + i + "?page=2");
+          break;
+        case 3:
+          links.add("#section-" + i);
+          break;
+        default:
+          links.add("https://cdn.example.net/assets/" + i + ".js");
+      }
+    }
+  }
+
+  @Benchmark
+  public void parsedBase(Blackhole blackhole) {
+    for (String link : links) {
+      blackhole.consume(Url.createRelativeTo(link, base));
+    }
+  }
+
+  @Benchmark
+  public void stringBase(Blackhole blackhole) {
+    for (String link : links) {
+      blackhole.consume(Url.create(link, BASE_URL));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse urls through a UrlCache shared by all the available threads, compared with Url.create.
+ * The hit-heavy workload draws its inputs from far fewer urls than the capacity of the cache,
+ * while the miss-heavy workload draws them from far more urls than the capacity of the cache
+ */
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class BenchmarkUrlCache {
+  private static final int CAPACITY = 4096;
+  @Param({"hit-heavy", "miss-heavy"})
+  private String workload;
+  private UrlCache cache;
+  private String[] urls;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    cache = UrlCache.create(CAPACITY);
+    urls = new String[("hit-heavy".equals(workload) ? CAPACITY / 4 : CAPACITY * 16)];
+    for (int i = 0; i < urls.length; i++) {
+      urls[i] = "https://api" + (i % 16) + ".example.com/v1/resources/" + i + "?fields=id,name";
+    }
+  }
+
+  String nextUrl() {
+    return urls[ThreadLocalRandom.current().nextInt(urls.length)];
+  }
+
+  @Benchmark
+  public void cache(Blackhole blackhole) {
+    blackhole.consume(cache.create(nextUrl()));
+  }
+
+  @Benchmark
+  public void create(Blackhole blackhole) {
+    blackhole.consume(Url.create(nextUrl()));
+  }
+}
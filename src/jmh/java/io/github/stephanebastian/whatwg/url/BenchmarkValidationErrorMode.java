@@ -0,0 +1,56 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse messy inputs, reporting many validation errors, with each validation error mode. Run with
+ * the gc profiler to get the allocation rate of each
+ */
+@State(Scope.Thread)
+public class BenchmarkValidationErrorMode {
+  private static final List<String> MESSY_URLS = Arrays.asList(
+      "  http://www.example.com/a path/with spaces/and|pipes  ",
+      "https:\\\\www.example.com\\windows\\style\\path?q=a b&r=c d",
+      "http://user:p@ss@www.example.com/\t/tab\n/newline",
+      "http://www.example.com/{json}/[brackets]/^caret^/`backtick`#frag ment",
+      "HTTP://WWW.EXAMPLE.COM:0080/%zz/%g1/%%/", "https://www.example.com/a\"b\"c<d>e?f=\"g\"");
+  @Param({"ALL", "DISTINCT", "NONE"})
+  private ValidationErrorMode validationErrorMode;
+  private UrlParser parser;
+  private int urlIndex = 0;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    parser = UrlParser.create(validationErrorMode);
+  }
+
+  String nextUrl() {
+    urlIndex++;
+    if (urlIndex >= MESSY_URLS.size()) {
+      urlIndex = 0;
+    }
+    return MESSY_URLS.get(urlIndex);
+  }
+
+  @Benchmark
+  public void doBenchmark(Blackhole blackhole) {
+    blackhole.consume(parser.parse(nextUrl()));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Derive variants of a seed url, either by parsing the href of the seed and calling a setter, or
+ * with the withers which share the unchanged components of the seed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BenchmarkWithers {
+  private static final int NUMBER_OF_VARIANTS = 40;
+  private Url seed;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    seed = Url.create(
+        "https://www.example.com/catalog/electronics/phones/index.html?sort=price&page=1#top");
+  }
+
+  @Benchmark
+  public void reparse(Blackhole blackhole) {
+    for (int i = 0; i < NUMBER_OF_VARIANTS; i++) {
+      switch (i % 4) {
+        case 0:
+          blackhole.consume(Url.create(seed.href()).pathname("/catalog/" + i));
+          break;
+        case 1:
+          blackhole.consume(Url.create(seed.href()).search("?page=" + i));
+          break;
+        case 2:
+          blackhole.consume(Url.create(seed.href()).hash("#section-" + i));
+          break;
+        default:
+          blackhole.consume(Url.create(seed.href()).host("cdn" + i + ".example.com"));
+      }
+    }
+  }
+
+  @Benchmark
+  public void withers(Blackhole blackhole) {
+    for (int i = 0; i < NUMBER_OF_VARIANTS; i++) {
+      switch (i % 4) {
+        case 0:
+          blackhole.consume(seed.withPathname("/catalog/" + i));
+          break;
+        case 1:
+          blackhole.consume(seed.withSearch("?page=" + i));
+          break;
+        case 2:
+          blackhole.consume(seed.withHash("#section-" + i));
+          break;
+        default:
+          blackhole.consume(seed.withHost("cdn" + i + ".example.com"));
+      }
+    }
+  }
+}
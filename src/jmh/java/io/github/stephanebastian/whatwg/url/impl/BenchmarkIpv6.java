@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.ValidationError;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Host-parse the IPv6 addresses of ipv6-valid.json or ipv6-invalid.json, and serialize the valid
+ * ones. Run with the gc profiler: parsing a valid address is expected to allocate the Ipv6Address
+ * only
+ */
+@State(Scope.Thread)
+public class BenchmarkIpv6 {
+  private static final Consumer<ValidationError> NO_ERROR_HANDLER = error -> {
+  };
+  @Param({"ipv6-valid.json", "ipv6-invalid.json"})
+  private String corpus;
+  private String[] hosts;
+  private Ipv6Address[] addresses;
+  private final StringBuilder output = new StringBuilder();
+  private int index;
+
+  @Setup(Level.Trial)
+  public void beforeBenchmark() {
+    Collection<Object> testData = TestUtils.readJsonFile(corpus);
+    testData.removeIf(next -> !(next instanceof Map));
+    List<String> result = new ArrayList<>();
+    List<Ipv6Address> parsedAddresses = new ArrayList<>();
+    for (Object next : testData) {
+      String host = "[" + ((Map<?, ?>) next).get("ip") + "]";
+      result.add(host);
+      Host parsedHost = HostParser.tryParse(host, false, NO_ERROR_HANDLER);
+      if (parsedHost instanceof Ipv6Address) {
+        parsedAddresses.add((Ipv6Address) parsedHost);
+      }
+    }
+    hosts = result.toArray(new String[0]);
+    addresses = parsedAddresses.toArray(new Ipv6Address[0]);
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    index = index + 1 < hosts.length ? index + 1 : 0;
+    blackhole.consume(HostParser.tryParse(hosts[index], false, NO_ERROR_HANDLER));
+  }
+
+  @Benchmark
+  public void serialize(Blackhole blackhole) {
+    if (addresses.length == 0) {
+      return;
+    }
+    index = index + 1 < addresses.length ? index + 1 : 0;
+    output.setLength(0);
+    SerializerHelper.serializeHost(addresses[index], output);
+    blackhole.consume(output);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import io.github.stephanebastian.whatwg.url.impl.BaseUrlCacheImpl;
+
+/**
+ * A bounded cache of parsed base urls, keyed by their string.<br>
+ * <br>
+ * Resolving inputs against the same base url string, for instance the links of a page against its
+ * url, parses that base url again and again. A cache parses each base url once and resolves the
+ * inputs against the parsed base url. When the cache is full, the least recently used base url is
+ * evicted.<br>
+ * <br>
+ * A cache is thread-safe and is meant to be shared by many threads. The base urls it holds are
+ * never exposed, so they cannot be modified
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface BaseUrlCache {
+  /**
+   * Create a new cache
+   *
+   * @param capacity the maximum number of base urls held by the cache
+   * @return a new cache
+   */
+  static BaseUrlCache create(int capacity) {
+    return BaseUrlCacheImpl.create(capacity);
+  }
+
+  /**
+   * Remove all the base urls held by the cache
+   */
+  void clear();
+
+  /**
+   * Create a new Url from the specified input and base url
+   *
+   * @param input the input to parse and create an Url from
+   * @param baseUrl the base url, may be null
+   * @return a new Url
+   * @exception ValidationException if the parse of the input or the base url returns a failure
+   */
+  Url create(String input, String baseUrl);
+
+  /**
+   * Return the number of base urls held by the cache
+   *
+   * @return the number of base urls
+   */
+  int size();
+
+  /**
+   * Create a new Url from the specified input and base url, without throwing an exception on
+   * failure
+   *
+   * @param input the input to parse and create an Url from
+   * @param baseUrl the base url, may be null
+   * @return the result of the parse, which is a failure if the parse of the input or the base url
+   *         returns failure
+   */
+  UrlParseResult tryCreate(String input, String baseUrl);
+}
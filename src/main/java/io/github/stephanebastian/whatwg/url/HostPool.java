@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import io.github.stephanebastian.whatwg.url.impl.HostPoolImpl;
+
+/**
+ * A bounded pool of the hosts seen by parsers.<br>
+ * <br>
+ * Most collections of urls share a small number of hosts. A parser created with a pool resolves
+ * each domain, IPv4 and IPv6 address it parses to the instance already held by the pool, so that
+ * the urls with the same host share a single host instead of holding a copy each. When the pool
+ * is full, the least recently used host is evicted.<br>
+ * <br>
+ * A pool is thread-safe and is meant to be shared by the parsers of many threads
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface HostPool {
+  /**
+   * Create a new pool
+   *
+   * @param capacity the maximum number of hosts held by the pool
+   * @return a new pool
+   */
+  static HostPool create(int capacity) {
+    return HostPoolImpl.create(capacity);
+  }
+
+  /**
+   * Remove all the hosts held by the pool. The urls already parsed keep their host
+   */
+  void clear();
+
+  /**
+   * Return the number of hosts held by the pool
+   *
+   * @return the number of hosts
+   */
+  int size();
+}
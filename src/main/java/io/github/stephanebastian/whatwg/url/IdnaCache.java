@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import io.github.stephanebastian.whatwg.url.impl.IdnaCacheImpl;
+
+/**
+ * A bounded cache of the conversions of internationalized domain names, keyed by the domain and
+ * the strictness of the conversion.<br>
+ * <br>
+ * Parsing a url whose host is an internationalized domain name, for instance bücher.de, converts
+ * the domain to ASCII with UTS46, which is the most expensive step of parsing such a url. Once
+ * installed, a cache holds the results of these conversions, including the conversions that fail,
+ * and is used by all the parsers. Domains made of ASCII letters, digits, hyphens and dots only are
+ * converted without a cache as their conversion is cheap. When the cache is full, the least
+ * recently used conversion is evicted.<br>
+ * <br>
+ * There is no cache installed by default. A cache is thread-safe and is meant to be shared by many
+ * threads
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface IdnaCache {
+  /**
+   * Create a new cache, which is used once installed
+   *
+   * @param capacity the maximum number of conversions held by the cache
+   * @return a new cache
+   */
+  static IdnaCache create(int capacity) {
+    return IdnaCacheImpl.create(capacity);
+  }
+
+  /**
+   * Return the installed cache
+   *
+   * @return the installed cache, or null if no cache is installed
+   */
+  static IdnaCache installed() {
+    return IdnaCacheImpl.installed();
+  }
+
+  /**
+   * Install the specified cache, replacing the cache already installed if any
+   *
+   * @param cache the cache used by all the parsers, null to stop caching the conversions
+   */
+  static void install(IdnaCache cache) {
+    IdnaCacheImpl.install(cache);
+  }
+
+  /**
+   * Remove all the conversions held by the cache. The statistics are not reset
+   */
+  void clear();
+
+  /**
+   * Return the number of conversions evicted to make room for new ones
+   *
+   * @return the number of evictions
+   */
+  long evictionCount();
+
+  /**
+   * Return the number of lookups that found the conversion in the cache
+   *
+   * @return the number of hits
+   */
+  long hitCount();
+
+  /**
+   * Return the number of lookups that did not find the conversion in the cache and converted the
+   * domain
+   *
+   * @return the number of misses
+   */
+  long missCount();
+
+  /**
+   * Return the number of conversions held by the cache
+   *
+   * @return the number of conversions
+   */
+  int size();
+}
@@ -54,12 +54,7 @@ public interface Url {
    * @return true if the url can be parsed, false otherwise
    */
   static boolean canParse(String url, String baseUrl) {
-    try {
-      create(url, baseUrl);
-      return true;
-    } catch (Exception e) {
-      return false;
-    }
+    return UrlImpl.canParse(url, baseUrl);
   }
 
   /**
@@ -94,6 +89,68 @@ public interface Url {
     return UrlImpl.create(input, baseUrl);
   }
 
+  /**
+   * Create a new Url from the specified input, relative to an already parsed base url. This is
+   * cheaper than resolving many inputs against the same base url string, as the base url is parsed
+   * only once. Its components are shared with the new Url rather than copied, and the base url is
+   * not modified. A frozen base url is parsed back from its href the first time it is used as a
+   * base url
+   *
+   * @param input the input to parse and create an Url from
+   * @param base the base url, may be null
+   * @return a new Url
+   * @exception ValidationException if the parse returns a failure
+   */
+  static Url createRelativeTo(String input, Url base) {
+    return UrlImpl.createRelativeTo(input, base);
+  }
+
+  /**
+   * Create a new Url from the specified input, without throwing an exception on failure
+   *
+   * @param input the input to parse and create an Url from
+   * @return the result of the parse
+   */
+  static UrlParseResult tryCreate(String input) {
+    return tryCreate(input, null);
+  }
+
+  /**
+   * Create a new Url from the specified input and base url, without throwing an exception on
+   * failure
+   *
+   * @param input the input to parse and create an Url from
+   * @param baseUrl the base url
+   * @return the result of the parse
+   */
+  static UrlParseResult tryCreate(String input, String baseUrl) {
+    return UrlImpl.tryCreate(input, baseUrl);
+  }
+
+  /**
+   * Create a new Url from the specified input, relative to an already parsed base url, without
+   * throwing an exception on failure
+   *
+   * @param input the input to parse and create an Url from
+   * @param base the base url, may be null
+   * @return the result of the parse
+   */
+  static UrlParseResult tryCreateRelativeTo(String input, Url base) {
+    return UrlImpl.tryCreateRelativeTo(input, base);
+  }
+
+  /**
+   * Return an immutable snapshot of this url.<br>
+   * <br>
+   * The snapshot holds the serialized properties of this url in final fields, it can be safely
+   * published and shared by many threads. Its setters throw an UnsupportedOperationException.
+   * Changing this url afterwards does not change the snapshot. Freezing a snapshot returns the
+   * snapshot itself
+   *
+   * @return an immutable snapshot of this url
+   */
+  Url freeze();
+
   /**
    * Return the hash property.
    *
@@ -162,6 +219,14 @@ public interface Url {
    */
   String origin();
 
+  /**
+   * Return the parsed host. Unlike {@link #hostname()}, the parsed host exposes the typed value of
+   * the host, such as the bits of an IP address, without parsing its serialization again
+   *
+   * @return the parsed host, or null if this url has no host
+   */
+  UrlHost parsedHost();
+
   /**
    * Return the password.
    *
@@ -268,9 +333,50 @@ public interface Url {
 
   /**
    * Return a collection of validation errors reported when parsing the raw url and/or setting properties
-   * Note that this method is not explicitly specified by the WhatWg Url standard
+   * Note that this method is not explicitly specified by the WhatWg Url standard. Urls parsed by a
+   * {@link UrlParser} may collect only some of them, see {@link ValidationErrorMode}
    *
    * @return a collection of validation errors
    */
   Collection<ValidationError> validationErrors();
+
+  /**
+   * Return a new url, equal to this url with the hash property set to the specified value. The
+   * components left unchanged are shared with this url, rather than serialized and parsed again.
+   * This url is not modified
+   *
+   * @param value the hash to set
+   * @return a new url
+   */
+  Url withHash(String value);
+
+  /**
+   * Return a new url, equal to this url with the host property set to the specified value. The
+   * components left unchanged are shared with this url, rather than serialized and parsed again.
+   * This url is not modified
+   *
+   * @param value the host to set
+   * @return a new url
+   */
+  Url withHost(String value);
+
+  /**
+   * Return a new url, equal to this url with the pathname property set to the specified value. The
+   * components left unchanged are shared with this url, rather than serialized and parsed again.
+   * This url is not modified
+   *
+   * @param value the pathname to set
+   * @return a new url
+   */
+  Url withPathname(String value);
+
+  /**
+   * Return a new url, equal to this url with the search property set to the specified value. The
+   * components left unchanged are shared with this url, rather than serialized and parsed again.
+   * This url is not modified
+   *
+   * @param value the search to set
+   * @return a new url
+   */
+  Url withSearch(String value);
 }
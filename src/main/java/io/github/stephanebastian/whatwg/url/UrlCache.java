@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import io.github.stephanebastian.whatwg.url.impl.UrlCacheImpl;
+
+/**
+ * A bounded cache of parsed urls, keyed by their string.<br>
+ * <br>
+ * Parsing the same inputs again and again, for instance the endpoints called by a service, is
+ * wasteful. A cache parses each input once and returns the same immutable Url for it afterwards:
+ * calling a setter on a Url returned by a cache throws an UnsupportedOperationException. When the
+ * cache is full, the least recently used input is evicted.<br>
+ * <br>
+ * A cache is thread-safe and is meant to be shared by many threads
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface UrlCache {
+  /**
+   * Create a new cache
+   *
+   * @param capacity the maximum number of inputs held by the cache
+   * @return a new cache
+   */
+  static UrlCache create(int capacity) {
+    return UrlCacheImpl.create(capacity);
+  }
+
+  /**
+   * Remove all the inputs held by the cache. The hit and miss counts are not reset
+   */
+  void clear();
+
+  /**
+   * Return the immutable Url of the specified input
+   *
+   * @param input the input to parse and create an Url from
+   * @return an immutable Url
+   * @exception ValidationException if the parse returns a failure
+   */
+  Url create(String input);
+
+  /**
+   * Return the number of lookups that found the input in the cache
+   *
+   * @return the number of hits
+   */
+  long hitCount();
+
+  /**
+   * Return the number of lookups that did not find the input in the cache and parsed it
+   *
+   * @return the number of misses
+   */
+  long missCount();
+
+  /**
+   * Return the number of inputs held by the cache
+   *
+   * @return the number of inputs
+   */
+  int size();
+
+  /**
+   * Return the immutable Url of the specified input, without throwing an exception on failure
+   *
+   * @param input the input to parse and create an Url from
+   * @return the result of the parse
+   */
+  UrlParseResult tryCreate(String input);
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import java.net.InetAddress;
+
+/**
+ * A read-only view of the host of a parsed url.<br>
+ * <br>
+ * The host of a url is a domain, an IPv4 address, an IPv6 address, an opaque host or an empty
+ * host. The view exposes the value the parser produced, so that an address does not need to be
+ * parsed again from its serialization. A host is immutable and can be shared by many threads.
+ * Calling a getter that does not apply to the type of the host throws an IllegalStateException
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface UrlHost {
+  /**
+   * Return the ASCII domain of a domain host, as returned by domain to ASCII
+   *
+   * @return the ASCII domain
+   * @exception IllegalStateException if the host is not a domain
+   */
+  default String domain() {
+    throw new IllegalStateException("the host is not a domain but " + type());
+  }
+
+  /**
+   * Return the IPv4 address of an IPv4 host
+   *
+   * @return the 32 bits of the address, the first byte of the address in the highest bits
+   * @exception IllegalStateException if the host is not an IPv4 address
+   */
+  default int ipv4() {
+    throw new IllegalStateException("the host is not an IPv4 address but " + type());
+  }
+
+  /**
+   * Return the 16 bytes of the IPv6 address of an IPv6 host, in network byte order
+   *
+   * @return a new array holding the bytes of the address
+   * @exception IllegalStateException if the host is not an IPv6 address
+   */
+  default byte[] ipv6Bytes() {
+    throw new IllegalStateException("the host is not an IPv6 address but " + type());
+  }
+
+  /**
+   * Return the first 64 bits of the IPv6 address of an IPv6 host, which are its first 4 pieces
+   *
+   * @return the first 64 bits of the address, the first piece in the highest bits
+   * @exception IllegalStateException if the host is not an IPv6 address
+   */
+  default long ipv6High() {
+    throw new IllegalStateException("the host is not an IPv6 address but " + type());
+  }
+
+  /**
+   * Return the last 64 bits of the IPv6 address of an IPv6 host, which are its last 4 pieces
+   *
+   * @return the last 64 bits of the address, the fifth piece in the highest bits
+   * @exception IllegalStateException if the host is not an IPv6 address
+   */
+  default long ipv6Low() {
+    throw new IllegalStateException("the host is not an IPv6 address but " + type());
+  }
+
+  /**
+   * Return the InetAddress of an IPv4 or IPv6 host. The address is created from its bytes, there is
+   * no name service lookup. As done by {@link InetAddress#getByAddress(byte[])}, an IPv4-mapped
+   * IPv6 address, such as [::ffff:192.168.0.1], is returned as an Inet4Address
+   *
+   * @return an Inet4Address for an IPv4 host or an IPv4-mapped IPv6 host, an Inet6Address
+   *         otherwise
+   * @exception IllegalStateException if the host is not an IPv4 or IPv6 address
+   */
+  default InetAddress toInetAddress() {
+    throw new IllegalStateException("the host is not an IP address but " + type());
+  }
+
+  /**
+   * Return the type of the host
+   *
+   * @return the type of the host
+   */
+  Type type();
+
+  /**
+   * The types of host
+   */
+  enum Type {
+    /**
+     * A domain, the host of a special url that is not an IP address
+     */
+    DOMAIN,
+    /**
+     * The empty host, such as the host of file:///path
+     */
+    EMPTY,
+    /**
+     * An IPv4 address
+     */
+    IPV4,
+    /**
+     * An IPv6 address
+     */
+    IPV6,
+    /**
+     * The percent-encoded host of a url that is not special
+     */
+    OPAQUE,
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+/**
+ * The result of parsing a url without throwing an exception: either the parsed url or the
+ * validation error that caused the parse to return failure.<br>
+ * <br>
+ * Failure results carry no exception, which makes them much cheaper than catching a
+ * {@link ValidationException} when a significant part of the inputs are not valid urls
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface UrlParseResult {
+  /**
+   * Return the validation error that caused the parse to return failure
+   *
+   * @return the validation error, or null if the parse succeeded
+   */
+  ValidationError failure();
+
+  /**
+   * Return whether the parse succeeded
+   *
+   * @return true if the parse succeeded, false if it returned failure
+   */
+  boolean isSuccess();
+
+  /**
+   * Return the parsed url
+   *
+   * @return the url, or null if the parse returned failure
+   */
+  Url url();
+}
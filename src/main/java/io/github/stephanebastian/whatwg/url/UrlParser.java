@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+import io.github.stephanebastian.whatwg.url.impl.UrlParserImpl;
+
+/**
+ * A reusable URL parser.<br>
+ * <br>
+ * A parser keeps its internal buffers from one parse to the next, so that parsing many urls with
+ * the same instance allocates no more than what the resulting urls need. A parser is not
+ * thread-safe and is meant to be confined to a thread, typically a worker thread parsing a large
+ * number of urls.<br>
+ * <br>
+ * Note that there is no need to use a parser explicitly: Url.create(...) relies on a parser
+ * confined to the calling thread
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public interface UrlParser {
+  /**
+   * Create a new parser
+   *
+   * @return a new parser
+   */
+  static UrlParser create() {
+    return UrlParserImpl.create();
+  }
+
+  /**
+   * Create a new parser collecting validation errors according to the specified mode
+   *
+   * @param validationErrorMode how validation errors are collected in the parsed urls
+   * @return a new parser
+   */
+  static UrlParser create(ValidationErrorMode validationErrorMode) {
+    return UrlParserImpl.create(validationErrorMode);
+  }
+
+  /**
+   * Create a new parser resolving the hosts it parses to the hosts held by the specified pool
+   *
+   * @param hostPool the pool of hosts, which may be shared by many parsers
+   * @return a new parser
+   */
+  static UrlParser create(HostPool hostPool) {
+    return UrlParserImpl.create(ValidationErrorMode.ALL, hostPool);
+  }
+
+  /**
+   * Create a new parser collecting validation errors according to the specified mode and resolving
+   * the hosts it parses to the hosts held by the specified pool
+   *
+   * @param validationErrorMode how validation errors are collected in the parsed urls
+   * @param hostPool the pool of hosts, which may be shared by many parsers
+   * @return a new parser
+   */
+  static UrlParser create(ValidationErrorMode validationErrorMode, HostPool hostPool) {
+    return UrlParserImpl.create(validationErrorMode, hostPool);
+  }
+
+  /**
+   * Return whether the specified input can be parsed. This is cheaper than parsing the input as
+   * the url is not materialized
+   *
+   * @param input the input to check
+   * @return true if the input can be parsed, false otherwise
+   */
+  boolean canParse(String input);
+
+  /**
+   * Return whether the specified input can be parsed against a base url. This is cheaper than
+   * parsing the input as the url is not materialized
+   *
+   * @param input the input to check
+   * @param baseUrl the base url, may be null
+   * @return true if the input and the base url can be parsed, false otherwise
+   */
+  boolean canParse(String input, String baseUrl);
+
+  /**
+   * Parse the specified input
+   *
+   * @param input the input to parse
+   * @return a new Url
+   * @exception ValidationException if the parse returns a failure
+   */
+  Url parse(String input);
+
+  /**
+   * Parse the specified input against a base url
+   *
+   * @param input the input to parse
+   * @param baseUrl the base url, may be null
+   * @return a new Url
+   * @exception ValidationException if the parse of the input or the base url returns a failure
+   */
+  Url parse(String input, String baseUrl);
+
+  /**
+   * Parse the specified input against an already parsed base url, which is not modified
+   *
+   * @param input the input to parse
+   * @param base the base url, may be null
+   * @return a new Url
+   * @exception ValidationException if the parse returns a failure
+   */
+  Url parseRelativeTo(String input, Url base);
+
+  /**
+   * Parse the specified input without throwing an exception on failure
+   *
+   * @param input the input to parse
+   * @return the result of the parse
+   */
+  UrlParseResult tryParse(String input);
+
+  /**
+   * Parse the specified input against a base url without throwing an exception on failure
+   *
+   * @param input the input to parse
+   * @param baseUrl the base url, may be null
+   * @return the result of the parse, which is a failure if the parse of the input or the base url
+   *         returns failure
+   */
+  UrlParseResult tryParse(String input, String baseUrl);
+
+  /**
+   * Parse the specified input against an already parsed base url without throwing an exception on
+   * failure
+   *
+   * @param input the input to parse
+   * @param base the base url, may be null
+   * @return the result of the parse
+   */
+  UrlParseResult tryParseRelativeTo(String input, Url base);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url;
+
+/**
+ * Define how the validation errors reported while parsing are collected in
+ * {@link Url#validationErrors()}. Collecting them has a cost, especially on messy inputs that may
+ * report the same validation error once per offending character
+ *
+ * @author <a href="mail://stephane.bastian.dev@gmail.com">Stephane Bastian</a>
+ */
+public enum ValidationErrorMode {
+  /**
+   * Collect every validation error, in the order they are reported. This is the default
+   */
+  ALL,
+  /**
+   * Collect each kind of validation error once, in the order of their declaration
+   */
+  DISTINCT,
+  /**
+   * Do not collect validation errors. A failure is still reported
+   */
+  NONE,
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.BaseUrlCache;
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
+import io.github.stephanebastian.whatwg.url.ValidationException;
+import java.util.Objects;
+
+/**
+ * Parsed base urls are held in a {@link StripedLruCache}. Base urls that fail to parse are cached
+ * as well, as a shared failure result
+ */
+public class BaseUrlCacheImpl implements BaseUrlCache {
+  private final StripedLruCache<String, UrlParseResult> parsedBaseUrls;
+
+  private BaseUrlCacheImpl(int capacity) {
+    parsedBaseUrls = new StripedLruCache<>(capacity);
+  }
+
+  public static BaseUrlCache create(int capacity) {
+    return new BaseUrlCacheImpl(capacity);
+  }
+
+  @Override
+  public void clear() {
+    parsedBaseUrls.clear();
+  }
+
+  @Override
+  public Url create(String input, String baseUrl) {
+    UrlParseResult result = tryCreate(input, baseUrl);
+    if (!result.isSuccess()) {
+      throw new ValidationException(result.failure());
+    }
+    return result.url();
+  }
+
+  /**
+   * @return the parsed base url, either from the cache or parsed and then added to the cache
+   */
+  UrlParseResult parsedBaseUrl(String baseUrl) {
+    UrlParseResult result = parsedBaseUrls.get(baseUrl);
+    if (result == null) {
+      // the parse happens outside of the lock. Two threads missing the same base url at the same
+      // time both parse it, which is harmless
+      result = UrlParserImpl.threadLocal().tryParse(baseUrl);
+      if (result.isSuccess()) {
+        // the base url is shared by the urls resolved against it, mark it as such before it is
+        // published, so that resolving against it never writes to it
+        ((UrlImpl) result.url()).markPathShared();
+      }
+      parsedBaseUrls.put(baseUrl, result);
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return parsedBaseUrls.size();
+  }
+
+  @Override
+  public UrlParseResult tryCreate(String input, String baseUrl) {
+    Objects.requireNonNull(input);
+    if (baseUrl == null) {
+      return UrlParserImpl.threadLocal().tryParse(input);
+    }
+    UrlParseResult parsedBaseUrl = parsedBaseUrl(baseUrl);
+    if (!parsedBaseUrl.isSuccess()) {
+      return parsedBaseUrl;
+    }
+    return UrlParserImpl.threadLocal().tryParseRelativeTo(input, parsedBaseUrl.url());
+  }
+}
@@ -34,6 +34,104 @@ public class CodepointHelper {
   protected final static int CP_LEFT_SQUARE_BRACKET = 0x005B; // [
   protected final static int CP_BACKSLASH = 0x005C; // \
   protected final static int CP_RIGHT_SQUARE_BRACKET = 0x005D; // ]
+  // sets of codepoints, each set is a bit in the ASCII lookup table. Percent-encode sets include
+  // all the non-ASCII code points while forbidden host and domain code points are all ASCII
+  protected final static int C0_CONTROL_PERCENT_ENCODE_SET = 1;
+  protected final static int FRAGMENT_PERCENT_ENCODE_SET = 1 << 1;
+  protected final static int QUERY_PERCENT_ENCODE_SET = 1 << 2;
+  protected final static int SPECIAL_QUERY_PERCENT_ENCODE_SET = 1 << 3;
+  protected final static int PATH_PERCENT_ENCODE_SET = 1 << 4;
+  protected final static int USERINFO_PERCENT_ENCODE_SET = 1 << 5;
+  protected final static int COMPONENT_PERCENT_ENCODE_SET = 1 << 6;
+  protected final static int URL_ENCODED_PERCENT_ENCODE_SET = 1 << 7;
+  protected final static int FORBIDDEN_HOST_CODEPOINTS = 1 << 8;
+  protected final static int FORBIDDEN_DOMAIN_CODEPOINTS = 1 << 9;
+  protected final static int URL_CODEPOINTS = 1 << 10;
+  // for each ASCII codepoint, the sets the codepoint belongs to
+  private final static short[] ASCII_SETS = new short[0x80];
+
+  static {
+    for (int codepoint = 0; codepoint < ASCII_SETS.length; codepoint++) {
+      int sets = 0;
+      // The C0 control percent-encode set are the C0 controls and all code points greater than
+      // U+007E (~).
+      if (InfraHelper.isC0Control(codepoint) || codepoint > 0x007E) {
+        sets |= C0_CONTROL_PERCENT_ENCODE_SET;
+      }
+      // The fragment percent-encode set is the C0 control percent-encode set and U+0020 SPACE,
+      // U+0022 ("), U+003C (<), U+003E (>), and U+0060 (`).
+      if ((sets & C0_CONTROL_PERCENT_ENCODE_SET) != 0 || codepoint == CP_SPACE
+          || codepoint == CP_QUOTATION_MARK || codepoint == CP_LESS_THAN
+          || codepoint == CP_GREATER_THAN || codepoint == 0x0060) {
+        sets |= FRAGMENT_PERCENT_ENCODE_SET;
+      }
+      // The query percent-encode set is the C0 control percent-encode set and U+0020 SPACE,
+      // U+0022 ("), U+0023 (#), U+003C (<), and U+003E (>).
+      if ((sets & C0_CONTROL_PERCENT_ENCODE_SET) != 0 || codepoint == CP_SPACE
+          || codepoint == CP_QUOTATION_MARK || codepoint == CP_HASH || codepoint == CP_LESS_THAN
+          || codepoint == CP_GREATER_THAN) {
+        sets |= QUERY_PERCENT_ENCODE_SET;
+      }
+      // The special-query percent-encode set is the query percent-encode set and U+0027 (').
+      if ((sets & QUERY_PERCENT_ENCODE_SET) != 0 || codepoint == CP_APOSTROPHE) {
+        sets |= SPECIAL_QUERY_PERCENT_ENCODE_SET;
+      }
+      // The path percent-encode set is the query percent-encode set and U+003F (?), U+0060 (`),
+      // U+007B ({), and U+007D (}).
+      if ((sets & QUERY_PERCENT_ENCODE_SET) != 0 || codepoint == CP_QUESTION_MARK
+          || codepoint == 0x0060 || codepoint == 0x007B || codepoint == 0x007D) {
+        sets |= PATH_PERCENT_ENCODE_SET;
+      }
+      // The userinfo percent-encode set is the path percent-encode set and U+002F (/), U+003A (:),
+      // U+003B (;), U+003D (=), U+0040 (@), U+005B ([) to U+005E (^), inclusive, and U+007C (|).
+      if ((sets & PATH_PERCENT_ENCODE_SET) != 0 || codepoint == CP_SLASH || codepoint == CP_COLON
+          || codepoint == 0x003B || codepoint == 0x003D || codepoint == CP_AT
+          || (codepoint >= 0x005B && codepoint <= 0x005E) || codepoint == 0x007C) {
+        sets |= USERINFO_PERCENT_ENCODE_SET;
+      }
+      // The component percent-encode set is the userinfo percent-encode set and U+0024 ($) to
+      // U+0026 (&), inclusive, U+002B (+), and U+002C (,).
+      if ((sets & USERINFO_PERCENT_ENCODE_SET) != 0
+          || (codepoint >= 0x0024 && codepoint <= 0x0026) || codepoint == CP_PLUS
+          || codepoint == 0x002C) {
+        sets |= COMPONENT_PERCENT_ENCODE_SET;
+      }
+      // The application/x-www-form-urlencoded percent-encode set is the component percent-encode
+      // set and U+0021 (!), U+0027 (') to U+0029 RIGHT PARENTHESIS, inclusive, and U+007E (~).
+      if ((sets & COMPONENT_PERCENT_ENCODE_SET) != 0 || codepoint == 0x0021
+          || (codepoint >= 0x0027 && codepoint <= 0x0029) || codepoint == 0x007E) {
+        sets |= URL_ENCODED_PERCENT_ENCODE_SET;
+      }
+      // A forbidden host code point is U+0000 NULL, U+0009 TAB, U+000A LF, U+000D CR, U+0020
+      // SPACE, U+0023 (#), U+002F (/), U+003A (:), U+003C (<), U+003E (>), U+003F (?), U+0040 (@),
+      // U+005B ([), U+005C (\), U+005D (]), U+005E (^), or U+007C (|).
+      if (codepoint == 0x0000 || codepoint == 0x0009 || codepoint == 0x000A
+          || codepoint == 0x000D || codepoint == CP_SPACE || codepoint == CP_HASH
+          || codepoint == CP_SLASH || codepoint == CP_COLON || codepoint == CP_LESS_THAN
+          || codepoint == CP_GREATER_THAN || codepoint == CP_QUESTION_MARK || codepoint == CP_AT
+          || (codepoint >= 0x005B && codepoint <= 0x005E) || codepoint == 0x007C) {
+        sets |= FORBIDDEN_HOST_CODEPOINTS;
+      }
+      // A forbidden domain code point is a forbidden host code point, a C0 control, U+0025 (%),
+      // or U+007F DELETE.
+      if ((sets & FORBIDDEN_HOST_CODEPOINTS) != 0 || InfraHelper.isC0Control(codepoint)
+          || codepoint == CP_PERCENT || codepoint == 0x007F) {
+        sets |= FORBIDDEN_DOMAIN_CODEPOINTS;
+      }
+      // The URL code points are ASCII alphanumeric, U+0021 (!), U+0024 ($), U+0026 (&), U+0027
+      // ('), U+0028 LEFT PARENTHESIS, U+0029 RIGHT PARENTHESIS, U+002A (*), U+002B (+), U+002C
+      // (,), U+002D (-), U+002E (.), U+002F (/), U+003A (:), U+003B (;), U+003D (=), U+003F (?),
+      // U+0040 (@), U+005F (_), U+007E (~), and non-ASCII code points (see isUrlCodepoint)
+      if (InfraHelper.isAsciiAlphanumeric(codepoint) || codepoint == 0x0021
+          || (codepoint >= 0x0024 && codepoint <= 0x002F && codepoint != 0x0025)
+          || codepoint == CP_COLON || codepoint == 0x003B || codepoint == 0x003D
+          || codepoint == CP_QUESTION_MARK || codepoint == CP_AT || codepoint == 0x005F
+          || codepoint == 0x007E) {
+        sets |= URL_CODEPOINTS;
+      }
+      ASCII_SETS[codepoint] = (short) sets;
+    }
+  }
 
   public static boolean hasOnlyAsciiDigit(String value) {
     if (value != null && !value.isEmpty()) {
@@ -49,6 +147,25 @@ public class CodepointHelper {
     return false;
   }
 
+  /**
+   * @param codepoint the codepoint to test
+   * @param sets one or several sets (bits of the lookup table)
+   * @return true if the codepoint is ASCII and belongs to one of the specified sets
+   */
+  static boolean isAsciiIn(int codepoint, int sets) {
+    return codepoint >= 0 && codepoint < 0x80 && (ASCII_SETS[codepoint] & sets) != 0;
+  }
+
+  /**
+   * @param codepoint the codepoint to test
+   * @param percentEncodeSet the percent-encode set (one of the XXX_PERCENT_ENCODE_SET bits)
+   * @return true if the codepoint is in the specified percent-encode set, false otherwise. Note
+   *         that all percent-encode sets include non-ASCII codepoints
+   */
+  static boolean isInPercentEncodeSet(int codepoint, int percentEncodeSet) {
+    return codepoint >= 0x80 || isAsciiIn(codepoint, percentEncodeSet);
+  }
+
   /**
    * A forbidden domain code point is a forbidden host code point, a C0 control, U+0025 (%), or
    * U+007F DELETE.
@@ -57,8 +174,7 @@ public class CodepointHelper {
    * @return true if the codepoint is forbidden for domains, false otherwise
    */
   public static boolean isForbiddenDomainCodePoint(int codepoint) {
-    return isForbiddenHostCodePoint(codepoint) || InfraHelper.isC0Control(codepoint)
-        || codepoint == CodepointHelper.CP_PERCENT || codepoint == 0x007F;
+    return isAsciiIn(codepoint, FORBIDDEN_DOMAIN_CODEPOINTS);
   }
 
   /**
@@ -72,11 +188,7 @@ public class CodepointHelper {
    * @return true if the codepoint is forbidden for hosts, false otherwise
    */
   public static boolean isForbiddenHostCodePoint(int codepoint) {
-    return codepoint == 0x0000 || codepoint == 0x0009 || codepoint == 0x000A || codepoint == 0x000D
-        || codepoint == 0x0020 || codepoint == 0x0023 || codepoint == 0x002F || codepoint == 0x003A
-        || codepoint == 0x003C || codepoint == 0x003E || codepoint == 0x003F || codepoint == 0x0040
-        || codepoint == 0x005B || codepoint == 0x005C || codepoint == 0x005D || codepoint == 0x005E
-        || codepoint == 0x007C;
+    return isAsciiIn(codepoint, FORBIDDEN_HOST_CODEPOINTS);
   }
 
   /**
@@ -87,7 +199,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the C0 Control Percent Encode set, false otherwise
    */
   public static boolean isInC0ControlPercentEncodeSet(int codepoint) {
-    return InfraHelper.isC0Control(codepoint) || codepoint > 0x007E;
+    return isInPercentEncodeSet(codepoint, C0_CONTROL_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -98,8 +210,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the Component Percent Encode set, false otherwise
    */
   public static boolean isInComponentPercentEncodeSet(int codepoint) {
-    return isInUserInfoPercentEncodeSet(codepoint) || codepoint == 0x0024 || codepoint == 0x0025
-        || codepoint == 0x0026 || codepoint == 0x002B || codepoint == 0x002C;
+    return isInPercentEncodeSet(codepoint, COMPONENT_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -110,11 +221,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the Fragment Percent Encode set, false otherwise
    */
   public static boolean isInFragmentPercentEncodeSet(int codepoint) {
-    return isInC0ControlPercentEncodeSet(codepoint) || codepoint == CodepointHelper.CP_SPACE
-        || codepoint == CodepointHelper.CP_QUOTATION_MARK
-        || codepoint == CodepointHelper.CP_LESS_THAN || codepoint == CodepointHelper.CP_GREATER_THAN
-        || codepoint == 0x0060 /* ' */
-    ;
+    return isInPercentEncodeSet(codepoint, FRAGMENT_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -125,10 +232,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the Path Percent Encode set, false otherwise
    */
   public static boolean isInPathPercentEncodeSet(int codepoint) {
-    return isQueryPercentEncodeSet(codepoint) || codepoint == CodepointHelper.CP_QUESTION_MARK
-        || codepoint == 0x0060 || codepoint == 0x007B/* { */
-        || codepoint == 0x007D/* } */
-    ;
+    return isInPercentEncodeSet(codepoint, PATH_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -139,11 +243,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the User Info Percent Encode set, false otherwise
    */
   public static boolean isInUserInfoPercentEncodeSet(int codepoint) {
-    return isInPathPercentEncodeSet(codepoint) || codepoint == 0x002F /* / */
-        || codepoint == 0x003A /* : */ || codepoint == 0x003B /* ; */ || codepoint == 0x003D /* = */
-        || codepoint == 0x0040 /* @ */ || codepoint == 0x005B /* [ */ || codepoint == 0x005C /* \ */
-        || codepoint == 0x005D /* ] */ || codepoint == 0x005E /* ^ */ || codepoint == 0x007C /* | */
-    ;
+    return isInPercentEncodeSet(codepoint, USERINFO_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -154,8 +254,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in Url Encode Percent Encode set, false otherwise
    */
   public static boolean isInUrlEncodedPercentEncodeSet(int codepoint) {
-    return isInComponentPercentEncodeSet(codepoint) || codepoint == 0x0021
-        || (codepoint >= 0x0027 && codepoint <= 0x0029) || codepoint == 0x007E;
+    return isInPercentEncodeSet(codepoint, URL_ENCODED_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -192,10 +291,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the Query Percent Encode set, false otherwise
    */
   public static boolean isQueryPercentEncodeSet(int codepoint) {
-    return isInC0ControlPercentEncodeSet(codepoint) || codepoint == CodepointHelper.CP_SPACE
-        || codepoint == CodepointHelper.CP_QUOTATION_MARK || codepoint == CodepointHelper.CP_HASH
-        || codepoint == CodepointHelper.CP_LESS_THAN
-        || codepoint == CodepointHelper.CP_GREATER_THAN;
+    return isInPercentEncodeSet(codepoint, QUERY_PERCENT_ENCODE_SET);
   }
 
   /** The special-query percent-encode set is the query percent-encode set and U+0027 (').
@@ -204,7 +300,7 @@ public class CodepointHelper {
    * @return true if the codepoint is in the Special Query Percent Encode set, false otherwise
    */
   public static boolean isSpecialQueryPercentEncodeSet(int codepoint) {
-    return isQueryPercentEncodeSet(codepoint) || codepoint == CodepointHelper.CP_APOSTROPHE;
+    return isInPercentEncodeSet(codepoint, SPECIAL_QUERY_PERCENT_ENCODE_SET);
   }
 
   /**
@@ -218,12 +314,10 @@ public class CodepointHelper {
    * @return true if the codepoint is a Url codepoint, false otherwise
    */
   public static boolean isUrlCodepoint(int codepoint) {
-    return InfraHelper.isAsciiAlphanumeric(codepoint) || codepoint == 0x0021 || codepoint == 0x0024
-        || codepoint == 0x0026 || codepoint == 0x0027 || codepoint == 0x0028 || codepoint == 0x0029
-        || codepoint == 0x002A || codepoint == 0x002B || codepoint == 0x002C || codepoint == 0x002D
-        || codepoint == 0x002E || codepoint == 0x002F || codepoint == 0x003A || codepoint == 0x003B
-        || codepoint == 0x003D || codepoint == 0x003F || codepoint == 0x0040 || codepoint == 0x005F
-        || codepoint == 0x007E || (codepoint > 0x00A0 && codepoint < 0x10FFFD
-            && !InfraHelper.isSurrogate(codepoint) && !isNonCharacter(codepoint));
+    if (codepoint < 0x80) {
+      return isAsciiIn(codepoint, URL_CODEPOINTS);
+    }
+    return codepoint > 0x00A0 && codepoint < 0x10FFFD && !InfraHelper.isSurrogate(codepoint)
+        && !isNonCharacter(codepoint);
   }
 }
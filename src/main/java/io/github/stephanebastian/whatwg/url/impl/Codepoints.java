@@ -15,84 +15,127 @@
 package io.github.stephanebastian.whatwg.url.impl;
 
 import java.util.Objects;
-import java.util.function.BiPredicate;
-import java.util.function.IntPredicate;
 
 /**
  * This class is a helper to make it easier to deal with codepoints
+ * <br>
+ * Codepoints are either backed by an array of codepoints or, when the input is made of ASCII
+ * characters only, by a range of chars of the original String. In the latter case, each char is
+ * a codepoint and no array needs to be materialized
+ * <br>
+ * The API only deals with primitives (no varargs, no functional interface) and the codepoint at
+ * the current position is computed once per move of the pointer, so that walking the input never
+ * allocates
  */
 public class Codepoints {
   int[] codepoints;
+  private String asciiChars;
+  private int offset;
+  private int length;
   int pointer;
+  private int codepoint;
+
+  private static final int[] NO_CODEPOINTS = new int[0];
+
+  Codepoints() {
+    this(NO_CODEPOINTS);
+  }
 
   public Codepoints(String value) {
-    Objects.requireNonNull(value);
-    this.codepoints = value.codePoints().toArray();
-    this.pointer = 0;
+    this(Objects.requireNonNull(value).codePoints().toArray());
   }
 
   public Codepoints(int[] codepoints) {
-    this.codepoints = Objects.requireNonNull(codepoints);
-    this.pointer = 0;
+    reset(codepoints);
+  }
+
+  /**
+   * Create codepoints backed by a range of the specified String. Every char of the range must be
+   * ASCII
+   *
+   * @param asciiChars the string whose chars are ASCII
+   * @param offset the index of the first char
+   * @param length the number of chars
+   */
+  Codepoints(String asciiChars, int offset, int length) {
+    reset(asciiChars, offset, length);
+  }
+
+  /**
+   * Reset to an empty input, releasing the previous one
+   */
+  void clear() {
+    reset(NO_CODEPOINTS);
   }
 
   int codepoint() {
-    return codepointAt(pointer());
+    return codepoint;
   }
 
   int codepointAt(int position) {
     if (position < 0) {
       return CodepointHelper.CP_BOF;
     }
-    if (position >= codepoints.length) {
+    if (position >= length) {
       return CodepointHelper.CP_EOF;
     }
-    return codepoints[position];
+    return asciiChars != null ? asciiChars.charAt(offset + position) : codepoints[position];
   }
 
   boolean codepointIs(int codePoint) {
-    return codepoint() == codePoint;
+    return codepoint == codePoint;
   }
 
-  boolean codepointIs(IntPredicate predicate) {
-    return predicate.test(codepoint());
+  boolean codepointIsNot(int codePoint) {
+    return codepoint != codePoint;
   }
 
-  boolean codepointIsNot(IntPredicate predicate) {
-    return !codepointIs(predicate);
+  boolean codepointIsOneOf(int codePoint1, int codePoint2) {
+    return codepoint == codePoint1 || codepoint == codePoint2;
   }
 
-  boolean codepointIsNot(int codePoint) {
-    return !codepointIs(codePoint);
+  boolean codepointIsOneOf(int codePoint1, int codePoint2, int codePoint3) {
+    return codepoint == codePoint1 || codepoint == codePoint2 || codepoint == codePoint3;
   }
 
-  boolean codepointIsOneOf(int... codePoints) {
-    for (int codePoint : codePoints) {
-      if (codepointIs(codePoint)) {
-        return true;
-      }
-    }
-    return false;
+  boolean codepointIsOneOf(int codePoint1, int codePoint2, int codePoint3, int codePoint4) {
+    return codepoint == codePoint1 || codepoint == codePoint2 || codepoint == codePoint3
+        || codepoint == codePoint4;
+  }
+
+  boolean codepointIsOneOf(int codePoint1, int codePoint2, int codePoint3, int codePoint4,
+      int codePoint5) {
+    return codepoint == codePoint1 || codepoint == codePoint2 || codepoint == codePoint3
+        || codepoint == codePoint4 || codepoint == codePoint5;
   }
 
   void decreasePointerBy(int value) {
-    pointer(pointer() - value);
+    pointer(pointer - value);
   }
 
   void decreasePointerByOne() {
-    pointer(pointer() - 1);
+    pointer(pointer - 1);
   }
 
   void increasePointerByOne() {
-    pointer(pointer() + 1);
+    pointer(pointer + 1);
   }
 
   boolean isEof() {
-    return codepoint() == CodepointHelper.CP_EOF;
+    return codepoint == CodepointHelper.CP_EOF;
   }
 
   int length() {
-    return codepoints.length;
+    return length;
+  }
+
+  /**
+   * @param offset the offset, relative to the pointer, of the codepoint to return
+   * @return the codepoint at the specified offset from the pointer, CP_BOF or CP_EOF if the
+   *         position is out of range
+   */
+  int peek(int offset) {
+    return codepointAt(pointer + offset);
   }
 
   int pointer() {
@@ -101,29 +144,69 @@ public class Codepoints {
 
   void pointer(int position) {
     this.pointer = position;
+    this.codepoint = codepointAt(position);
   }
 
   int remaining() {
-    return remaining(pointer());
+    return remaining(pointer);
   }
 
   private int remaining(int position) {
-    int result = length() - position;
+    int result = length - position;
     return result >= 0 ? result : 0;
   }
 
-  boolean remainingMatch(int numberOfCodepointsToMatch, BiPredicate<Integer, Integer> predicate) {
-    if (numberOfCodepointsToMatch > 0 && remaining(pointer() + 1) >= numberOfCodepointsToMatch) {
-      for (int i = 0; i < numberOfCodepointsToMatch; i++) {
-        int codepoint = codepointAt(pointer() + i + 1);
-        boolean result = predicate.test(i, codepoint);
-        if (!result) {
-          return false;
-        }
-      }
-      return true;
-    }
-    return false;
+  /**
+   * @param codePoint the codepoint to check
+   * @return true if the codepoint right after the pointer is the specified codepoint
+   */
+  boolean remainingStartsWith(int codePoint) {
+    return peek(1) == codePoint;
+  }
+
+  /**
+   * @param codePoint1 the first codepoint to check
+   * @param codePoint2 the second codepoint to check
+   * @return true if the two codepoints right after the pointer are the specified codepoints
+   */
+  boolean remainingStartsWith(int codePoint1, int codePoint2) {
+    return peek(1) == codePoint1 && peek(2) == codePoint2;
+  }
+
+  /**
+   * @return true if the two codepoints right after the pointer are ASCII hex digits
+   */
+  boolean remainingStartsWithTwoAsciiHexDigits() {
+    return InfraHelper.isAsciiHexDigit(peek(1)) && InfraHelper.isAsciiHexDigit(peek(2));
+  }
+
+  /**
+   * Reset to the specified codepoints, the pointer is set to the first codepoint
+   *
+   * @param codepoints the codepoints
+   */
+  void reset(int[] codepoints) {
+    this.codepoints = Objects.requireNonNull(codepoints);
+    this.asciiChars = null;
+    this.offset = 0;
+    this.length = codepoints.length;
+    pointer(0);
+  }
+
+  /**
+   * Reset to a range of the specified String, the pointer is set to the first codepoint. Every
+   * char of the range must be ASCII
+   *
+   * @param asciiChars the string whose chars are ASCII
+   * @param offset the index of the first char
+   * @param length the number of chars
+   */
+  void reset(String asciiChars, int offset, int length) {
+    this.codepoints = null;
+    this.asciiChars = Objects.requireNonNull(asciiChars);
+    this.offset = offset;
+    this.length = length;
+    pointer(0);
   }
 
   void startOver() {
@@ -17,7 +17,7 @@ package io.github.stephanebastian.whatwg.url.impl;
 import java.util.Objects;
 
 class Domain implements Host {
-  private String host;
+  private final String host;
 
   private Domain(String host) {
     this.host = Objects.requireNonNull(host);
@@ -27,11 +27,30 @@ class Domain implements Host {
     return new Domain(host);
   }
 
-  public String host() {
+  @Override
+  public String domain() {
     return host;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Domain && host.equals(((Domain) o).host);
+  }
+
+  @Override
+  public int hashCode() {
+    return host.hashCode();
+  }
+
   public String toString() {
     return host;
   }
+
+  @Override
+  public Type type() {
+    return Type.DOMAIN;
+  }
 }
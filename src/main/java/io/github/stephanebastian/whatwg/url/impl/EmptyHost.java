@@ -27,4 +27,9 @@ class EmptyHost implements Host {
   public String toString() {
     return "";
   }
+
+  @Override
+  public Type type() {
+    return Type.EMPTY;
+  }
 }
@@ -14,5 +14,7 @@
  */
 package io.github.stephanebastian.whatwg.url.impl;
 
-interface Host {
+import io.github.stephanebastian.whatwg.url.UrlHost;
+
+interface Host extends UrlHost {
 }
@@ -16,13 +16,15 @@ package io.github.stephanebastian.whatwg.url.impl;
 
 import io.github.stephanebastian.whatwg.url.ValidationError;
 import io.github.stephanebastian.whatwg.url.ValidationException;
-import java.util.AbstractMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
 public class HostParser {
+  // parsed IPv4 numbers saturate to 2^32, the bit above it tells whether the number is not decimal
+  static final long IPV4_NUMBER_MAX = 1L << 32;
+  static final long IPV4_NUMBER_NON_DECIMAL = 1L << 33;
+  static final long IPV4_NUMBER_FAILURE = -1;
+
   /**
    * <pre>
    * The ends in a number checker takes an ASCII string input and then runs
@@ -49,30 +51,32 @@ public class HostParser {
    * @return whether the input ends in a number
    */
   static boolean endsInANumber(String input) {
-    // 1
-    List<String> parts = InfraHelper.strictSplit(input, '.');
-    if (parts.isEmpty()) {
-      return false;
-    }
-    String lastPart = parts.get(parts.size() - 1);
+    // 1 - the parts are not split, the last one is located by index
+    int end = input.length();
     // 2
-    if (lastPart.isEmpty()) {
-      // 2.1
-      if (parts.size() == 1) {
-        return false;
-      }
+    if (end > 0 && input.charAt(end - 1) == '.') {
+      // 2.1 - an input ending with U+002E (.) has at least two parts, while the single empty part
+      // of the empty input is handled by 4 and 5
       // 2.2
-      lastPart = parts.get(parts.size() - 2);
+      end--;
     }
     // 3
+    int start = input.lastIndexOf('.', end - 1) + 1;
     // 4
-    if (!lastPart.isEmpty() && CodepointHelper.hasOnlyAsciiDigit(lastPart)) {
-      return true;
+    if (end > start) {
+      boolean onlyAsciiDigits = true;
+      for (int i = start; i < end && onlyAsciiDigits; i++) {
+        onlyAsciiDigits = InfraHelper.isAsciiDigit(input.charAt(i));
+      }
+      if (onlyAsciiDigits) {
+        return true;
+      }
     }
     // 5
-    if (lastPart.startsWith("0x") || lastPart.startsWith("0X")) {
-      for (int i = 2; i < lastPart.length(); i++) {
-        if (!InfraHelper.isAsciiHexDigit(lastPart.charAt(i))) {
+    if (end - start >= 2 && input.charAt(start) == '0'
+        && (input.charAt(start + 1) == 'x' || input.charAt(start + 1) == 'X')) {
+      for (int i = start + 2; i < end; i++) {
+        if (!InfraHelper.isAsciiHexDigit(input.charAt(i))) {
           return false;
         }
       }
@@ -90,6 +94,16 @@ public class HostParser {
     return false;
   }
 
+  private static boolean isAsciiWithoutPercent(String input) {
+    for (int i = 0; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (c >= 0x80 || c == CodepointHelper.CP_PERCENT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * The host parser takes a scalar value string input with an optional boolean
    * isOpaque (default false), and then runs these steps. They return failure or a host.
@@ -115,38 +129,62 @@ public class HostParser {
    * @param input the host to parse
    * @param isOpaque a boolean indicating whether the host is opaque
    * @param errorHandler the error handler
-   * @return the Host
+   * @return the Host, or null if the parse returns failure. In that case, the validation error that
+   *         caused the failure is the last one passed to the error handler
    */
-  static Host parse(String input, boolean isOpaque, Consumer<ValidationError> errorHandler) {
+  static Host tryParse(String input, boolean isOpaque, Consumer<ValidationError> errorHandler) {
     // 1
     if (input.startsWith("[")) {
       // 1.1
       if (!input.endsWith("]")) {
-        throw new ValidationException(ValidationError.IPV6_UNCLOSED);
+        errorHandler.accept(ValidationError.IPV6_UNCLOSED);
+        return null;
       }
-      return parseIpv6(input.substring(1, input.length() - 1));
+      return tryParseIpv6(input, 1, input.length() - 1, errorHandler);
     }
     // 2
     if (isOpaque) {
-      return parseOpaqueHost(input, errorHandler);
+      return tryParseOpaqueHost(input, errorHandler);
     }
     // 3
     // 4
-    String domain = EncodingHelper.utf8DecodeWithoutBom(UrlHelper.percentDecode(input));
-    // 5, 6
-    String asciiDomain = UrlHelper.domainToAscii(domain, false);
+    // decoding an ASCII input without U+0025 (%) returns the input, which is the common case
+    String domain = isAsciiWithoutPercent(input) ? input
+        : EncodingHelper.utf8DecodeWithoutBom(UrlHelper.percentDecode(input));
+    // 5
+    String asciiDomain = UrlHelper.tryDomainToAscii(domain, false);
+    // 6
+    if (asciiDomain == null) {
+      errorHandler.accept(ValidationError.DOMAIN_TO_ASCII);
+      return null;
+    }
     // 7
     if (hasForbiddenDomainCodepoints(asciiDomain)) {
-      throw new ValidationException(ValidationError.DOMAIN_INVALID_CODEPOINT);
+      errorHandler.accept(ValidationError.DOMAIN_INVALID_CODEPOINT);
+      return null;
     }
     // 8
     if (endsInANumber(asciiDomain)) {
-      return parseIpv4(asciiDomain, errorHandler);
+      return tryParseIpv4(asciiDomain, errorHandler);
     }
     // 9
     return Domain.create(asciiDomain);
   }
 
+  /**
+   * Same as {@link #tryParse(String, boolean, Consumer)} but throw an exception on failure
+   *
+   * @param input the host to parse
+   * @param isOpaque a boolean indicating whether the host is opaque
+   * @param errorHandler the error handler
+   * @return the Host
+   * @exception ValidationException if the parse returns failure
+   */
+  static Host parse(String input, boolean isOpaque, Consumer<ValidationError> errorHandler) {
+    FailureTracker failureTracker = new FailureTracker(errorHandler);
+    return failureTracker.orThrow(tryParse(input, isOpaque, failureTracker));
+  }
+
   /**
    * <pre>
    * The IPv4 parser takes an ASCII string input and then runs these steps.
@@ -191,70 +229,121 @@ public class HostParser {
    *
    * @param input the input to parse
    * @param errorHandler the error handler
-   * @return the {@link Ipv4Address}
+   * @return the {@link Ipv4Address}, or null if the parse returns failure
    */
-  static Ipv4Address parseIpv4(String input, Consumer<ValidationError> errorHandler) {
-    // 1
-    List<String> parts = InfraHelper.strictSplit(input, '.');
+  static Ipv4Address tryParseIpv4(String input, Consumer<ValidationError> errorHandler) {
+    // 1 - the parts are not split but parsed in place, in a single pass over the input
+    int length = input.length();
     // 2
-    if (parts.isEmpty() || parts.get(parts.size() - 1).isEmpty()) {
+    if (length == 0 || input.charAt(length - 1) == '.') {
       // 2.1
       errorHandler.accept(ValidationError.IPV4_EMPTY_PART);
       // 2.2
-      if (parts.size() > 1) {
-        parts.remove(parts.size() - 1);
+      if (length > 0) {
+        length--;
       }
     }
-    // 3
-    if (parts.size() > 4) {
-      throw new ValidationException(ValidationError.IPV4_TOO_MANY_PARTS);
-    }
-    // 4
-    int[] numbers = new int[parts.size()];
+    // 4 - the numbers but the last one are written to ipv4 as they are parsed
+    int ipv4 = 0;
+    long number = 0;
+    int numberOfParts = 0;
+    // the errors of 5.3 and 6 are reported once all the parts are parsed, as the spec reports too
+    // many parts before them
+    int numberOfNonDecimalParts = 0;
+    boolean outOfRangePart = false;
+    boolean outOfRangeNonLastPart = false;
     // 5
-    for (int i = 0; i < parts.size(); i++) {
-      String part = parts.get(i);
-      try {
-        // 5.1
-        Map.Entry<Integer, Boolean> parsedNumber = parseIpv4Number(part);
-        // 5.3
-        if (parsedNumber.getValue()) {
-          errorHandler.accept(ValidationError.IPV4_NON_DECIMAL_PART);
+    for (int partStart = 0, i = 0; i <= length; i++) {
+      if (i < length && input.charAt(i) != '.') {
+        continue;
+      }
+      numberOfParts++;
+      // 3
+      if (numberOfParts > 4) {
+        errorHandler.accept(ValidationError.IPV4_TOO_MANY_PARTS);
+        return null;
+      }
+      // 5.1
+      long result = parseIpv4Number(input, partStart, i);
+      // 5.2
+      if (result == IPV4_NUMBER_FAILURE) {
+        // 3
+        if (numberOfParts + count(input, '.', i, length) > 4) {
+          errorHandler.accept(ValidationError.IPV4_TOO_MANY_PARTS);
+          return null;
         }
-        // 5.4
-        numbers[i] = parsedNumber.getKey();
-      } catch (Exception e) {
-        // 5.2
-        throw new ValidationException(ValidationError.IPV4_NON_NUMERIC_PART);
+        reportNonDecimalParts(numberOfNonDecimalParts, errorHandler);
+        errorHandler.accept(ValidationError.IPV4_NON_NUMERIC_PART);
+        return null;
       }
-    }
-    // 6
-    for (int number : numbers) {
+      // 5.3
+      if ((result & IPV4_NUMBER_NON_DECIMAL) != 0) {
+        numberOfNonDecimalParts++;
+      }
+      // 5.4
+      number = result & ~IPV4_NUMBER_NON_DECIMAL;
       if (number > 255) {
-        errorHandler.accept(ValidationError.IPV4_OUT_OF_RANGE_PART);
-        break;
+        outOfRangePart = true;
       }
+      // 12 - a part followed by another one is not the last part
+      if (i < length) {
+        if (number > 255) {
+          outOfRangeNonLastPart = true;
+        } else {
+          // 12.1
+          ipv4 += (int) number << (8 * (4 - numberOfParts));
+        }
+      }
+      partStart = i + 1;
+    }
+    reportNonDecimalParts(numberOfNonDecimalParts, errorHandler);
+    // 6
+    if (outOfRangePart) {
+      errorHandler.accept(ValidationError.IPV4_OUT_OF_RANGE_PART);
     }
     // 7
-    for (int i = 0; i < numbers.length - 1; i++) {
-      if (numbers[i] > 255 && i < numbers.length - 1) {
-        throw new ValidationException(ValidationError.IPV4_OUT_OF_RANGE_PART);
-      }
+    if (outOfRangeNonLastPart) {
+      errorHandler.accept(ValidationError.IPV4_OUT_OF_RANGE_PART);
+      return null;
     }
     // 8
-    if (numbers[numbers.length - 1] >= Math.pow(256, (5 - numbers.length))) {
-      throw new ValidationException(ValidationError.IPV4_OUT_OF_RANGE_PART);
+    if (number >= 1L << (8 * (5 - numberOfParts))) {
+      errorHandler.accept(ValidationError.IPV4_OUT_OF_RANGE_PART);
+      return null;
     }
-    // 9
-    int ipv4 = numbers[numbers.length - 1];
-    // 10, 11, 12
-    for (int i = 0, counter = 0; i < numbers.length - 1; i++, counter++) {
-      // 12.1
-      int n = numbers[i];
-      ipv4 = ipv4 + n * (int) Math.pow(256, (3 - counter));
+    // 9, 10, 11
+    // 13
+    return Ipv4Address.create(ipv4 + (int) number);
+  }
+
+  private static int count(String input, char c, int start, int end) {
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      if (input.charAt(i) == c) {
+        result++;
+      }
     }
-    // 14
-    return Ipv4Address.create(ipv4);
+    return result;
+  }
+
+  private static void reportNonDecimalParts(int numberOfNonDecimalParts,
+      Consumer<ValidationError> errorHandler) {
+    for (int i = 0; i < numberOfNonDecimalParts; i++) {
+      errorHandler.accept(ValidationError.IPV4_NON_DECIMAL_PART);
+    }
+  }
+
+  /**
+   * Same as {@link #tryParseIpv4(String, Consumer)} but throw an exception on failure
+   *
+   * @param input the input to parse
+   * @param errorHandler the error handler
+   * @return the {@link Ipv4Address}
+   * @exception ValidationException if the parse returns failure
+   */
+  static Ipv4Address parseIpv4(String input, Consumer<ValidationError> errorHandler) {
+    FailureTracker failureTracker = new FailureTracker(errorHandler);
+    return failureTracker.orThrow(tryParseIpv4(input, failureTracker));
   }
 
   /**
@@ -289,52 +378,72 @@ public class HostParser {
    * </ul>
    * </pre>
    *
-   * @param input the input to parse
-   * @return a tuple whose key is the parsed number and the value is a boolean indicating whether a
-   *         validation error occurred
+   * The number is parsed in place, without allocating: numbers too large for 32 bits saturate
+   * to 2^32, which is out of range of any part, rather than overflowing.
+   *
+   * @param input the input holding the number
+   * @param start the index of the first char of the number
+   * @param end the index following the last char of the number
+   * @return the parsed number, with the bit {@link #IPV4_NUMBER_NON_DECIMAL} set if a validation
+   *         error occurred, or {@link #IPV4_NUMBER_FAILURE} if the parse returns failure
    */
-  static Map.Entry<Integer, Boolean> parseIpv4Number(String input) {
-    Objects.requireNonNull(input);
+  static long parseIpv4Number(String input, int start, int end) {
     // 1
-    if (input.isEmpty()) {
-      throw new RuntimeException("Expecting non empty string");
+    if (start == end) {
+      return IPV4_NUMBER_FAILURE;
     }
     // 2
-    boolean validationError = false;
+    long validationError = 0;
     // 3
     int radix = 10;
     // 4
-    if (input.startsWith("0x") || input.startsWith("0X")) {
+    if (end - start >= 2 && input.charAt(start) == '0'
+        && (input.charAt(start + 1) == 'x' || input.charAt(start + 1) == 'X')) {
       // 4.1
-      validationError = true;
+      validationError = IPV4_NUMBER_NON_DECIMAL;
       // 4.2
-      input = input.substring(2);
+      start += 2;
       // 4.3
       radix = 16;
     }
     // 5
-    else if (input.length() >= 2 && input.startsWith("0")) {
+    else if (end - start >= 2 && input.charAt(start) == '0') {
       // 5.1
-      validationError = true;
+      validationError = IPV4_NUMBER_NON_DECIMAL;
       // 5.2
-      input = input.substring(1);
+      start++;
       // 5.3
       radix = 8;
     }
     // 6
-    if (input.isEmpty()) {
-      return new AbstractMap.SimpleEntry<Integer, Boolean>(0, true);
+    if (start == end) {
+      return IPV4_NUMBER_NON_DECIMAL;
     }
-    // 7
-    for (int i = 0; i < input.length(); i++) {
-      if (Character.digit(input.codePointAt(i), radix) == -1) {
-        throw new RuntimeException("The codepoint is not a radix R digit");
+    // 7, 8
+    long output = 0;
+    for (int i = start; i < end; i++) {
+      int digit = asciiDigit(input.charAt(i));
+      if (digit >= radix) {
+        return IPV4_NUMBER_FAILURE;
       }
+      output = Math.min(output * radix + digit, IPV4_NUMBER_MAX);
     }
-    // 8
-    int output = Integer.parseUnsignedInt(input, radix);
     // 9
-    return new AbstractMap.SimpleEntry<Integer, Boolean>(output, validationError);
+    return output | validationError;
+  }
+
+  /**
+   * @return the value of an ASCII hex digit, or Integer.MAX_VALUE if the char is not such a digit
+   */
+  private static int asciiDigit(char c) {
+    if (InfraHelper.isAsciiDigit(c)) {
+      return c - '0';
+    } else if (InfraHelper.isAsciiLowerHexDigit(c)) {
+      return c - 'a' + 10;
+    } else if (InfraHelper.isAsciiUpperHexDigit(c)) {
+      return c - 'A' + 10;
+    }
+    return Integer.MAX_VALUE;
   }
 
   /**
@@ -444,164 +553,223 @@ public class HostParser {
    * </pre>
    *
    * @param input the string value to parse as an ipv6 address
-   * @return
+   * @param errorHandler the error handler
+   * @return the {@link Ipv6Address}, or null if the parse returns failure
    */
-  static Ipv6Address parseIpv6(String input) {
+  static Ipv6Address tryParseIpv6(String input, Consumer<ValidationError> errorHandler) {
+    return tryParseIpv6(input, 0, input.length(), errorHandler);
+  }
+
+  /**
+   * Same as {@link #tryParseIpv6(String, Consumer)}, parsing the chars of the input from start
+   * (inclusive) to end (exclusive) in place.<br>
+   * <br>
+   * The address is not held in an array of pieces: the pieces are shifted into a 128 bits register
+   * made of two longs as they are parsed. Once compress is known, the pieces preceding it are moved
+   * from the register to a head, which is shifted to its final position at the end (7)
+   *
+   * @param input the input holding the address
+   * @param start the index of the first char of the address
+   * @param end the index following the last char of the address
+   * @param errorHandler the error handler
+   * @return the {@link Ipv6Address}, or null if the parse returns failure
+   */
+  static Ipv6Address tryParseIpv6(String input, int start, int end,
+      Consumer<ValidationError> errorHandler) {
     // 1
-    short[] address = new short[8];
+    long high = 0;
+    long low = 0;
+    long headHigh = 0;
+    long headLow = 0;
     // 2
     int pieceIndex = 0;
     // 3
-    Integer compress = null;
+    int compress = -1;
     // 4
-    int pointer = 0;
+    int pointer = start;
     // 5
-    if (UrlHelper.codePoint(input, pointer) == 0x003A/* : */) {
+    if (charAt(input, pointer, end) == CodepointHelper.CP_COLON) {
       // 5.1
-      if (!UrlHelper.remainingMatch(input, pointer, 1,
-          (idx, cp) -> cp == CodepointHelper.CP_COLON)) {
-        throw new ValidationException(ValidationError.IPV6_INVALID_COMPRESSION);
+      if (charAt(input, pointer + 1, end) != CodepointHelper.CP_COLON) {
+        errorHandler.accept(ValidationError.IPV6_INVALID_COMPRESSION);
+        return null;
       }
       // 5.2
       pointer += 2;
-      // 5.3
+      // 5.3 - the head is a single 0 piece
       pieceIndex++;
       compress = pieceIndex;
     }
     // 6
-    while ((UrlHelper.codePoint(input, pointer)) != CodepointHelper.CP_EOF) {
+    while (pointer < end) {
       // 6.1
       if (pieceIndex == 8) {
-        throw new ValidationException(ValidationError.IPV6_TOO_MANY_PIECES);
+        errorHandler.accept(ValidationError.IPV6_TOO_MANY_PIECES);
+        return null;
       }
       // 6.2
-      if (UrlHelper.codePoint(input, pointer) == CodepointHelper.CP_COLON) {
+      if (input.charAt(pointer) == CodepointHelper.CP_COLON) {
         // 6.2.1
-        if (compress != null) {
-          throw new ValidationException(ValidationError.IPV6_MULTIPLE_COMPRESSION);
+        if (compress != -1) {
+          errorHandler.accept(ValidationError.IPV6_MULTIPLE_COMPRESSION);
+          return null;
         }
-        // 6.2.2
+        // 6.2.2 - the pieces parsed so far followed by a 0 piece are the head
         pointer++;
         pieceIndex++;
         compress = pieceIndex;
+        headHigh = (high << 16) | (low >>> 48);
+        headLow = low << 16;
+        high = 0;
+        low = 0;
         continue;
       }
       // 6.3
       int value = 0;
       int length = 0;
       // 6.4
-      while (length < 4 && InfraHelper.isAsciiHexDigit(UrlHelper.codePoint(input, pointer))) {
-        value = value * 0x10 + Character.digit(UrlHelper.codePoint(input, pointer), 16);
+      while (length < 4 && InfraHelper.isAsciiHexDigit(charAt(input, pointer, end))) {
+        value = value * 0x10 + asciiDigit(input.charAt(pointer));
         pointer++;
         length++;
       }
       // 6.5
-      if (UrlHelper.codePoint(input, pointer) == CodepointHelper.CP_PERIOD) {
+      if (charAt(input, pointer, end) == CodepointHelper.CP_PERIOD) {
         // 6.5.1
         if (length == 0) {
-          throw new ValidationException(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+          errorHandler.accept(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+          return null;
         }
         // 6.5.2
         pointer = pointer - length;
         // 6.5.3
         if (pieceIndex > 6) {
-          throw new ValidationException(ValidationError.IPV4_IN_IPV6_TOO_MANY_PIECES);
+          errorHandler.accept(ValidationError.IPV4_IN_IPV6_TOO_MANY_PIECES);
+          return null;
         }
         // 6.5.4
-        int numberSeen = 0;
+        int numbersSeen = 0;
         // 6.5.5
-        while (UrlHelper.codePoint(input, pointer) != CodepointHelper.CP_EOF) {
+        while (pointer < end) {
           // 6.5.5.1
-          Short ipv4Piece = null;
+          int ipv4Piece = -1;
           // 6.5.5.2
-          if (numberSeen > 0) {
-            if (UrlHelper.codePoint(input, pointer) == CodepointHelper.CP_PERIOD
-                && numberSeen < 4) {
+          if (numbersSeen > 0) {
+            if (input.charAt(pointer) == CodepointHelper.CP_PERIOD && numbersSeen < 4) {
               // 6.5.5.2.1
               pointer++;
             } else {
               // 6.5.5.2.2
-              throw new ValidationException(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+              errorHandler.accept(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+              return null;
             }
           }
           // 6.5.5.3
-          if (!InfraHelper.isAsciiDigit(UrlHelper.codePoint(input, pointer))) {
-            throw new ValidationException(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+          if (!InfraHelper.isAsciiDigit(charAt(input, pointer, end))) {
+            errorHandler.accept(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+            return null;
           }
           // 6.5.5.4
-          while (InfraHelper.isAsciiDigit(UrlHelper.codePoint(input, pointer))) {
+          while (InfraHelper.isAsciiDigit(charAt(input, pointer, end))) {
             // 6.5.5.4.1
-            short number = (short) Character.digit(UrlHelper.codePoint(input, pointer), 10);
+            int number = input.charAt(pointer) - '0';
             // 6.5.5.4.2
-            if (ipv4Piece == null) {
+            if (ipv4Piece == -1) {
               ipv4Piece = number;
             } else if (ipv4Piece == 0) {
-              throw new ValidationException(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+              errorHandler.accept(ValidationError.IPV4_IN_IPV6_INVALID_CODEPOINT);
+              return null;
             } else {
-              ipv4Piece = (short) (ipv4Piece * 10 + number);
+              ipv4Piece = ipv4Piece * 10 + number;
             }
             // 6.5.5.4.3
             if (ipv4Piece > 255) {
-              throw new ValidationException(ValidationError.IPV4_IN_IPV6_OUT_OF_RANGE_PART);
+              errorHandler.accept(ValidationError.IPV4_IN_IPV6_OUT_OF_RANGE_PART);
+              return null;
             }
             // 6.5.5.4.4
             pointer++;
           }
           // 6.5.5.5
-          address[pieceIndex] = (short) (address[pieceIndex] * 0x100 + ipv4Piece);
+          high = (high << 8) | (low >>> 56);
+          low = (low << 8) | ipv4Piece;
           // 6.5.5.6
-          numberSeen++;
+          numbersSeen++;
           // 6.5.5.7
-          if (numberSeen == 2 || numberSeen == 4) {
+          if (numbersSeen == 2 || numbersSeen == 4) {
             pieceIndex++;
           }
         }
         // 6.5.6
-        if (numberSeen != 4) {
-          throw new ValidationException(ValidationError.IPV4_IN_IPV6_TOO_FEW_PARTS);
+        if (numbersSeen != 4) {
+          errorHandler.accept(ValidationError.IPV4_IN_IPV6_TOO_FEW_PARTS);
+          return null;
         }
         // 6.5.7
         break;
       }
       // 6.6
-      else if (UrlHelper.codePoint(input, pointer) == CodepointHelper.CP_COLON) {
+      else if (charAt(input, pointer, end) == CodepointHelper.CP_COLON) {
         // 6.6.1
         pointer++;
         // 6.6.2
-        if (UrlHelper.codePoint(input, pointer) == CodepointHelper.CP_EOF) {
-          throw new ValidationException(ValidationError.IPV6_INVALID_CODEPOINT);
+        if (pointer == end) {
+          errorHandler.accept(ValidationError.IPV6_INVALID_CODEPOINT);
+          return null;
         }
       }
       // 6.7
-      else if (UrlHelper.codePoint(input, pointer) != CodepointHelper.CP_EOF) {
-        throw new ValidationException(ValidationError.IPV6_INVALID_CODEPOINT);
+      else if (pointer < end) {
+        errorHandler.accept(ValidationError.IPV6_INVALID_CODEPOINT);
+        return null;
       }
       // 6.8
-      address[pieceIndex] = (short) value;
+      high = (high << 16) | (low >>> 48);
+      low = (low << 16) | value;
       // 6.9
       pieceIndex++;
     }
     // 7
-    if (compress != null) {
-      // 7.1
-      int swaps = pieceIndex - compress;
-      // 7.2
-      pieceIndex = 7;
-      // 7.3
-      while (pieceIndex > 0 && swaps > 0) {
-        int tmp1 = address[pieceIndex];
-        int tmp2 = address[compress + swaps - 1];
-        address[pieceIndex] = (short) tmp2;
-        address[compress + swaps - 1] = (short) tmp1;
-        pieceIndex--;
-        swaps--;
+    if (compress != -1) {
+      // 7.1, 7.2, 7.3 - the pieces following compress are already the last pieces of the
+      // register, the head is shifted so that its last piece is the piece at compress - 1
+      int shift = 16 * (8 - compress);
+      if (shift >= 64) {
+        headHigh = headLow << (shift - 64);
+        headLow = 0;
+      } else if (shift > 0) {
+        headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+        headLow = headLow << shift;
       }
+      high |= headHigh;
+      low |= headLow;
     }
     // 8
-    else if (compress == null && pieceIndex != 8) {
-      throw new ValidationException(ValidationError.IPV6_TOO_FEW_PIECES);
+    else if (pieceIndex != 8) {
+      errorHandler.accept(ValidationError.IPV6_TOO_FEW_PIECES);
+      return null;
     }
-    return Ipv6Address.create(address);
+    return Ipv6Address.create(high, low);
+  }
+
+  /**
+   * @return the char of the input at the pointer, or the EOF code point past the end
+   */
+  private static int charAt(String input, int pointer, int end) {
+    return pointer < end ? input.charAt(pointer) : CodepointHelper.CP_EOF;
+  }
+
+  /**
+   * Same as {@link #tryParseIpv6(String, Consumer)} but throw an exception on failure
+   *
+   * @param input the string value to parse as an ipv6 address
+   * @return the {@link Ipv6Address}
+   * @exception ValidationException if the parse returns failure
+   */
+  static Ipv6Address parseIpv6(String input) {
+    FailureTracker failureTracker = new FailureTracker(error -> {
+    });
+    return failureTracker.orThrow(tryParseIpv6(input, failureTracker));
   }
 
   /**
@@ -620,12 +788,13 @@ public class HostParser {
    * </ul>
    * </pre>
    */
-  static Host parseOpaqueHost(String input, Consumer<ValidationError> errorHandler) {
+  static Host tryParseOpaqueHost(String input, Consumer<ValidationError> errorHandler) {
     for (int i = 0; i < input.length(); i++) {
       int codePoint = input.codePointAt(i);
       // 1
       if (CodepointHelper.isForbiddenHostCodePoint(codePoint)) {
-        throw new ValidationException(ValidationError.HOST_INVALID_CODEPOINT);
+        errorHandler.accept(ValidationError.HOST_INVALID_CODEPOINT);
+        return null;
       }
       // 2
       if (!CodepointHelper.isUrlCodepoint(codePoint) && codePoint != CodepointHelper.CP_PERCENT) {
@@ -640,6 +809,32 @@ public class HostParser {
     }
     // 4
     return OpaqueHost
-        .create(UrlHelper.utf8PercentEncode(input, CodepointHelper::isInC0ControlPercentEncodeSet));
+        .create(UrlHelper.utf8PercentEncode(input, CodepointHelper.C0_CONTROL_PERCENT_ENCODE_SET));
+  }
+
+  /**
+   * An error handler keeping track of the last validation error it receives, which is the one that
+   * caused the failure when a parse returns failure
+   */
+  private static class FailureTracker implements Consumer<ValidationError> {
+    private final Consumer<ValidationError> errorHandler;
+    private ValidationError lastValidationError;
+
+    FailureTracker(Consumer<ValidationError> errorHandler) {
+      this.errorHandler = Objects.requireNonNull(errorHandler);
+    }
+
+    @Override
+    public void accept(ValidationError validationError) {
+      lastValidationError = validationError;
+      errorHandler.accept(validationError);
+    }
+
+    <T> T orThrow(T result) {
+      if (result == null) {
+        throw new ValidationException(lastValidationError);
+      }
+      return result;
+    }
   }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.HostPool;
+
+/**
+ * Hosts are held in a {@link StripedLruCache}, keyed by themselves: domains, IPv4 and IPv6
+ * addresses are immutable and compare by value. Other hosts are not pooled, the empty host is
+ * already a single instance and opaque hosts are rarely shared
+ */
+public class HostPoolImpl implements HostPool {
+  private final StripedLruCache<Host, Host> hosts;
+
+  private HostPoolImpl(int capacity) {
+    hosts = new StripedLruCache<>(capacity);
+  }
+
+  public static HostPool create(int capacity) {
+    return new HostPoolImpl(capacity);
+  }
+
+  @Override
+  public void clear() {
+    hosts.clear();
+  }
+
+  /**
+   * Return the host held by the pool which is equal to the specified host. The host is added to
+   * the pool if the pool does not hold such a host
+   *
+   * @param host the host to intern, may be null
+   * @return the pooled host
+   */
+  Host intern(Host host) {
+    if (!(host instanceof Domain || host instanceof Ipv4Address || host instanceof Ipv6Address)) {
+      return host;
+    }
+    Host result = hosts.putIfAbsent(host, host);
+    return result == null ? host : result;
+  }
+
+  @Override
+  public int size() {
+    return hosts.size();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.IdnaCache;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conversions are held in a {@link StripedLruCache}, so that threads converting different domains
+ * rarely contend. Conversions that fail are cached as well, as a shared failure value. Hits and
+ * misses are counted with LongAdders, which do not contend when many threads update them
+ */
+public class IdnaCacheImpl implements IdnaCache {
+  // compared by reference, it cannot be mistaken for a conversion
+  private static final String FAILURE = new String("failure");
+  private static volatile IdnaCacheImpl installed;
+  private final StripedLruCache<Key, String> conversions;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  private IdnaCacheImpl(int capacity) {
+    conversions = new StripedLruCache<>(capacity);
+  }
+
+  public static IdnaCache create(int capacity) {
+    return new IdnaCacheImpl(capacity);
+  }
+
+  public static IdnaCache installed() {
+    return installed;
+  }
+
+  public static void install(IdnaCache cache) {
+    installed = (IdnaCacheImpl) cache;
+  }
+
+  /**
+   * @return the installed cache, or null if no cache is installed
+   */
+  static IdnaCacheImpl get() {
+    return installed;
+  }
+
+  @Override
+  public void clear() {
+    conversions.clear();
+  }
+
+  /**
+   * Same as {@link UrlHelper#uts46DomainToAscii(String, boolean)}, the conversion being cached
+   */
+  String domainToAscii(String domain, boolean beStrict) {
+    Key key = new Key(domain, beStrict ? Key.TO_ASCII_STRICT : Key.TO_ASCII);
+    String result = conversions.get(key);
+    if (result == null) {
+      missCount.increment();
+      result = UrlHelper.uts46DomainToAscii(domain, beStrict);
+      conversions.put(key, result == null ? FAILURE : result);
+      return result;
+    }
+    hitCount.increment();
+    return result == FAILURE ? null : result;
+  }
+
+  /**
+   * Same as {@link UrlHelper#uts46DomainToUnicode(String, boolean)}, the conversion being cached
+   */
+  String domainToUnicode(String domain, boolean beStrict) {
+    Key key = new Key(domain, beStrict ? Key.TO_UNICODE_STRICT : Key.TO_UNICODE);
+    String result = conversions.get(key);
+    if (result == null) {
+      missCount.increment();
+      result = UrlHelper.uts46DomainToUnicode(domain, beStrict);
+      conversions.put(key, result == null ? FAILURE : result);
+      return result;
+    }
+    hitCount.increment();
+    return result == FAILURE ? null : result;
+  }
+
+  @Override
+  public long evictionCount() {
+    return conversions.evictionCount();
+  }
+
+  @Override
+  public long hitCount() {
+    return hitCount.sum();
+  }
+
+  @Override
+  public long missCount() {
+    return missCount.sum();
+  }
+
+  @Override
+  public int size() {
+    return conversions.size();
+  }
+
+  private static final class Key {
+    static final int TO_ASCII = 0;
+    static final int TO_ASCII_STRICT = 1;
+    static final int TO_UNICODE = 2;
+    static final int TO_UNICODE_STRICT = 3;
+    private final String domain;
+    private final int conversion;
+
+    Key(String domain, int conversion) {
+      this.domain = domain;
+      this.conversion = conversion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return conversion == key.conversion && domain.equals(key.domain);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * domain.hashCode() + conversion;
+    }
+  }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlHost;
+import io.github.stephanebastian.whatwg.url.UrlSearchParams;
+import io.github.stephanebastian.whatwg.url.ValidationError;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable snapshot of a url.<br>
+ * <br>
+ * The snapshot holds the href of the url, serialized once, and the offsets of the components in
+ * the href. The href getter is free and the other getters return substrings of the href. The fields
+ * are final, so that a snapshot can be safely published and shared by many threads. Calling a
+ * setter throws an UnsupportedOperationException. Freezing a snapshot returns the snapshot itself
+ * and the withers return new snapshots
+ */
+public final class ImmutableUrl implements Url {
+  // scheme ':' ['//' [username [':' password] '@'] host [':' port]] ['/.'] path ['?' query]
+  // ['#' fragment]
+  private final String href;
+  // index of the ':' ending the scheme
+  private final int schemeEnd;
+  private final int usernameEnd;
+  private final int passwordEnd;
+  private final int hostStart;
+  private final int hostEnd;
+  private final int pathStart;
+  // index of the '?' starting the query, equal to fragmentStart if the query is null
+  private final int queryStart;
+  // index of the '#' starting the fragment, equal to the href length if the fragment is null
+  private final int fragmentStart;
+  // hosts are immutable, the host of the url is shared rather than parsed again from the href
+  private final UrlHost parsedHost;
+  private final Collection<ValidationError> validationErrors;
+  // created lazily from the query. It has final fields only, so a race at worst creates it twice
+  private ImmutableUrlSearchParams searchParams;
+  // the href parsed back to a url, the first time the snapshot is used as a base url. It is never
+  // exposed and its path is marked as shared, so that it is never modified once published
+  private volatile UrlImpl parsedBase;
+
+  ImmutableUrl(Url url) {
+    Objects.requireNonNull(url);
+    String href = url.href();
+    this.href = href;
+    this.schemeEnd = url.protocol().length() - 1;
+    int authorityStart = schemeEnd + 1;
+    // a url without host never starts its path with '//', the serializer adds '/.' in that case
+    if (href.startsWith("//", authorityStart)) {
+      authorityStart += 2;
+    }
+    String username = url.username();
+    String password = url.password();
+    if (username.isEmpty() && password.isEmpty()) {
+      this.usernameEnd = authorityStart;
+      this.passwordEnd = authorityStart;
+      this.hostStart = authorityStart;
+    } else {
+      this.usernameEnd = authorityStart + username.length();
+      this.passwordEnd = password.isEmpty() ? usernameEnd : usernameEnd + 1 + password.length();
+      this.hostStart = passwordEnd + 1;
+    }
+    this.hostEnd = hostStart + url.hostname().length();
+    String port = url.port();
+    int pathStart = port.isEmpty() ? hostEnd : hostEnd + 1 + port.length();
+    String pathname = url.pathname();
+    if (!href.startsWith(pathname, pathStart)) {
+      // skip the '/.' prefix
+      pathStart += 2;
+    }
+    this.pathStart = pathStart;
+    this.queryStart = pathStart + pathname.length();
+    int fragmentStart = href.indexOf('#', queryStart);
+    this.fragmentStart = fragmentStart >= 0 ? fragmentStart : href.length();
+    this.parsedHost = url.parsedHost();
+    this.validationErrors = url.validationErrors().isEmpty() ? Collections.emptyList()
+        : Collections.unmodifiableList(new ArrayList<>(url.validationErrors()));
+  }
+
+  /**
+   * A snapshot only holds the serialized properties, deriving a url parses the href again
+   *
+   * @return a mutable url equal to this snapshot
+   */
+  private Url mutableCopy() {
+    return UrlImpl.create(href, null);
+  }
+
+  /**
+   * @return the url this snapshot has been parsed back to as a base url, or null if it has not
+   */
+  UrlImpl parsedBase() {
+    return parsedBase;
+  }
+
+  /**
+   * Keep the url this snapshot has been parsed back to, so that using the snapshot as a base url
+   * again does not parse its href again. A race at worst parses it twice
+   */
+  void parsedBase(UrlImpl url) {
+    url.markPathShared();
+    this.parsedBase = url;
+  }
+
+  private static UnsupportedOperationException immutable() {
+    return new UnsupportedOperationException("the url is immutable");
+  }
+
+  @Override
+  public Url freeze() {
+    return this;
+  }
+
+  @Override
+  public String hash() {
+    return fragmentStart + 1 < href.length() ? href.substring(fragmentStart) : "";
+  }
+
+  @Override
+  public Url hash(String value) {
+    throw immutable();
+  }
+
+  private boolean hasPort() {
+    return hostEnd < pathStart && href.charAt(hostEnd) == ':';
+  }
+
+  @Override
+  public String host() {
+    return href.substring(hostStart, hasPort() ? pathStart : hostEnd);
+  }
+
+  @Override
+  public Url host(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String hostname() {
+    return href.substring(hostStart, hostEnd);
+  }
+
+  @Override
+  public Url hostname(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String href() {
+    return href;
+  }
+
+  @Override
+  public Url href(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String origin() {
+    switch (href.substring(0, schemeEnd)) {
+      case "blob":
+        return mutableCopy().origin();
+      case "ftp":
+      case "http":
+      case "https":
+      case "ws":
+      case "wss":
+        return href.substring(0, schemeEnd + 3) + host();
+      default:
+        return "null";
+    }
+  }
+
+  @Override
+  public UrlHost parsedHost() {
+    return parsedHost;
+  }
+
+  @Override
+  public String password() {
+    return passwordEnd > usernameEnd ? href.substring(usernameEnd + 1, passwordEnd) : "";
+  }
+
+  @Override
+  public Url password(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String pathname() {
+    return href.substring(pathStart, queryStart);
+  }
+
+  @Override
+  public Url pathname(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String port() {
+    return hasPort() ? href.substring(hostEnd + 1, pathStart) : "";
+  }
+
+  @Override
+  public Url port(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String protocol() {
+    return href.substring(0, schemeEnd + 1);
+  }
+
+  @Override
+  public Url protocol(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public String search() {
+    return queryStart + 1 < fragmentStart ? href.substring(queryStart, fragmentStart) : "";
+  }
+
+  @Override
+  public Url search(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public UrlSearchParams searchParams() {
+    ImmutableUrlSearchParams result = searchParams;
+    if (result == null) {
+      result = queryStart + 1 < fragmentStart
+          ? new ImmutableUrlSearchParams(href.substring(queryStart + 1, fragmentStart))
+          : ImmutableUrlSearchParams.EMPTY;
+      searchParams = result;
+    }
+    return result;
+  }
+
+  @Override
+  public String toJSON() {
+    return href;
+  }
+
+  @Override
+  public String toString() {
+    return href;
+  }
+
+  @Override
+  public String username() {
+    // credentials imply a host, the username starts after '//'
+    return hostStart > usernameEnd ? href.substring(schemeEnd + 3, usernameEnd) : "";
+  }
+
+  @Override
+  public Url username(String value) {
+    throw immutable();
+  }
+
+  @Override
+  public Collection<ValidationError> validationErrors() {
+    return validationErrors;
+  }
+
+  @Override
+  public Url withHash(String value) {
+    return mutableCopy().hash(value).freeze();
+  }
+
+  @Override
+  public Url withHost(String value) {
+    return mutableCopy().host(value).freeze();
+  }
+
+  @Override
+  public Url withPathname(String value) {
+    return mutableCopy().pathname(value).freeze();
+  }
+
+  @Override
+  public Url withSearch(String value) {
+    return mutableCopy().search(value).freeze();
+  }
+
+  /**
+   * An immutable snapshot of the search params of a url
+   */
+  static final class ImmutableUrlSearchParams implements UrlSearchParams {
+    private final List<String> names;
+    private final List<String> values;
+    private final String serialized;
+
+    static final ImmutableUrlSearchParams EMPTY = new ImmutableUrlSearchParams("");
+
+    ImmutableUrlSearchParams(String query) {
+      List<List<String>> pairs = UrlHelper.parseFormUrlEncoded(query);
+      List<String> names = new ArrayList<>(pairs.size());
+      List<String> values = new ArrayList<>(pairs.size());
+      List<UrlSearchParam> tuples = new ArrayList<>(pairs.size());
+      for (List<String> pair : pairs) {
+        names.add(pair.get(0));
+        values.add(pair.get(1));
+        tuples.add(new UrlSearchParam(pair.get(0), pair.get(1)));
+      }
+      StringBuilder serialized = new StringBuilder();
+      SerializerHelper.serializeFormUrlEncoded(tuples, serialized);
+      this.names = names;
+      this.values = values;
+      this.serialized = serialized.toString();
+    }
+
+    @Override
+    public UrlSearchParams append(String name, String value) {
+      throw immutable();
+    }
+
+    @Override
+    public Collection<String> delete(String name) {
+      throw immutable();
+    }
+
+    @Override
+    public boolean delete(String name, String value) {
+      throw immutable();
+    }
+
+    @Override
+    public UrlSearchParams entries(BiConsumer<String, String> consumer) {
+      Objects.requireNonNull(consumer);
+      for (int i = 0; i < names.size(); i++) {
+        consumer.accept(names.get(i), values.get(i));
+      }
+      return this;
+    }
+
+    @Override
+    public String get(String name) {
+      Objects.requireNonNull(name);
+      int index = names.indexOf(name);
+      return index >= 0 ? values.get(index) : null;
+    }
+
+    @Override
+    public Collection<String> getAll(String name) {
+      Objects.requireNonNull(name);
+      Collection<String> result = new ArrayList<>();
+      for (int i = 0; i < names.size(); i++) {
+        if (name.equals(names.get(i))) {
+          result.add(values.get(i));
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public boolean has(String name) {
+      Objects.requireNonNull(name);
+      return names.contains(name);
+    }
+
+    @Override
+    public boolean has(String name, String value) {
+      Objects.requireNonNull(name);
+      for (int i = 0; i < names.size(); i++) {
+        if (name.equals(names.get(i)) && Objects.equals(value, values.get(i))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public UrlSearchParams set(String name, String value) {
+      throw immutable();
+    }
+
+    @Override
+    public int size() {
+      return names.size();
+    }
+
+    @Override
+    public UrlSearchParams sort() {
+      throw immutable();
+    }
+
+    @Override
+    public String toString() {
+      return serialized;
+    }
+  }
+}
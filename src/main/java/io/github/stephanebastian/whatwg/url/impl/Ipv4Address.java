@@ -14,26 +14,64 @@
  */
 package io.github.stephanebastian.whatwg.url.impl;
 
-import java.util.Objects;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 
 class Ipv4Address implements Host {
-  private int ip;
+  private final int ip;
+  // the serialization, computed once. A race at worst computes it twice
+  private String serialization;
 
   private Ipv4Address(int ip) {
-    this.ip = Objects.requireNonNull(ip);
+    this.ip = ip;
   }
 
   public static Ipv4Address create(int ip) {
     return new Ipv4Address(ip);
   }
 
-  public int ip() {
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof Ipv4Address && ip == ((Ipv4Address) o).ip;
+  }
+
+  @Override
+  public int hashCode() {
+    return Integer.hashCode(ip);
+  }
+
+  @Override
+  public int ipv4() {
     return ip;
   }
 
+  @Override
+  public InetAddress toInetAddress() {
+    try {
+      // no lookup happens when the address is given as bytes
+      return InetAddress.getByAddress(InfraHelper.getBytes(ip));
+    } catch (UnknownHostException e) {
+      // only thrown for an array that is neither 4 nor 16 bytes long
+      throw new IllegalStateException(e);
+    }
+  }
+
   public String toString() {
-    StringBuilder result = new StringBuilder();
-    SerializerHelper.serializeHost(this, result);
-    return result.toString();
+    String result = serialization;
+    if (result == null) {
+      StringBuilder buffer = new StringBuilder();
+      SerializerHelper.serializeHost(this, buffer);
+      result = buffer.toString();
+      serialization = result;
+    }
+    return result;
+  }
+
+  @Override
+  public Type type() {
+    return Type.IPV4;
   }
 }
@@ -14,26 +14,105 @@
  */
 package io.github.stephanebastian.whatwg.url.impl;
 
-import java.util.Objects;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 
 class Ipv6Address implements Host {
-  private short[] ip;
+  // the 8 pieces of 16 bits, the first 4 pieces in high
+  private final long high;
+  private final long low;
+  // the serialization as a host, enclosed in brackets, computed once. A race at worst computes it
+  // twice
+  private String serializedHost;
 
-  private Ipv6Address(short[] ip) {
-    this.ip = Objects.requireNonNull(ip);
+  private Ipv6Address(long high, long low) {
+    this.high = high;
+    this.low = low;
   }
 
-  public static Ipv6Address create(short[] ip) {
-    return new Ipv6Address(ip);
+  public static Ipv6Address create(long high, long low) {
+    return new Ipv6Address(high, low);
   }
 
-  public short[] ip() {
-    return ip;
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Ipv6Address)) {
+      return false;
+    }
+    Ipv6Address address = (Ipv6Address) o;
+    return high == address.high && low == address.low;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(high) + Long.hashCode(low);
+  }
+
+  @Override
+  public byte[] ipv6Bytes() {
+    byte[] result = new byte[16];
+    for (int i = 0; i < 8; i++) {
+      result[i] = (byte) (high >>> (56 - 8 * i));
+      result[i + 8] = (byte) (low >>> (56 - 8 * i));
+    }
+    return result;
+  }
+
+  @Override
+  public long ipv6High() {
+    return high;
+  }
+
+  @Override
+  public long ipv6Low() {
+    return low;
+  }
+
+  /**
+   * @param index the index of the piece, from 0 to 7
+   * @return the unsigned value of the piece
+   */
+  public int piece(int index) {
+    long word = index < 4 ? high : low;
+    return (int) (word >>> (16 * (3 - (index & 3)))) & 0xFFFF;
+  }
+
+  /**
+   * @return the serialization of this address as a host, which is enclosed in brackets
+   */
+  String serializedHost() {
+    String result = serializedHost;
+    if (result == null) {
+      StringBuilder buffer = new StringBuilder(41);
+      buffer.append('[');
+      SerializerHelper.serializeHost(this, buffer);
+      result = buffer.append(']').toString();
+      serializedHost = result;
+    }
+    return result;
   }
 
   public String toString() {
-    StringBuilder result = new StringBuilder();
-    SerializerHelper.serializeHost(this, result);
-    return result.toString();
+    String result = serializedHost();
+    return result.substring(1, result.length() - 1);
+  }
+
+  @Override
+  public InetAddress toInetAddress() {
+    try {
+      // no lookup happens when the address is given as bytes
+      return InetAddress.getByAddress(ipv6Bytes());
+    } catch (UnknownHostException e) {
+      // only thrown for an array that is neither 4 nor 16 bytes long
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public Type type() {
+    return Type.IPV6;
   }
 }
@@ -17,7 +17,7 @@ package io.github.stephanebastian.whatwg.url.impl;
 import java.util.Objects;
 
 class OpaqueHost implements Host {
-  private String host;
+  private final String host;
 
   private OpaqueHost(String host) {
     this.host = Objects.requireNonNull(host);
@@ -34,4 +34,9 @@ class OpaqueHost implements Host {
   public String toString() {
     return host;
   }
+
+  @Override
+  public Type type() {
+    return Type.OPAQUE;
+  }
 }
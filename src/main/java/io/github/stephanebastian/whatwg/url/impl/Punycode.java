@@ -0,0 +1,228 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+/**
+ * Punycode, the encoding of the labels of internationalized domain names. [RFC3492]<br>
+ * <br>
+ * The codec only converts a label, it does not map or validate it, nor does it add or remove the
+ * "xn--" prefix: this is done by {@link Uts46}
+ */
+final class Punycode {
+  private static final int BASE = 36;
+  private static final int TMIN = 1;
+  private static final int TMAX = 26;
+  private static final int SKEW = 38;
+  private static final int DAMP = 700;
+  private static final int INITIAL_BIAS = 72;
+  private static final int INITIAL_N = 0x80;
+  private static final char DELIMITER = '-';
+
+  private Punycode() {
+  }
+
+  /**
+   * 6.1 Bias adaptation function
+   */
+  private static int adapt(int delta, int numPoints, boolean firstTime) {
+    delta = firstTime ? delta / DAMP : delta / 2;
+    delta += delta / numPoints;
+    int k = 0;
+    while (delta > ((BASE - TMIN) * TMAX) / 2) {
+      delta /= BASE - TMIN;
+      k += BASE;
+    }
+    return k + (BASE - TMIN + 1) * delta / (delta + SKEW);
+  }
+
+  /**
+   * 6.2 Decoding procedure
+   *
+   * @param input the label to decode, without its "xn--" prefix
+   * @return the decoded label, or null if the input is not valid punycode
+   */
+  static String decode(CharSequence input) {
+    int length = input.length();
+    int n = INITIAL_N;
+    int i = 0;
+    int bias = INITIAL_BIAS;
+    // let b be the number of input code points before the last delimiter, or 0 if there is none
+    int b = 0;
+    for (int j = length - 1; j >= 0; j--) {
+      if (input.charAt(j) == DELIMITER) {
+        b = j;
+        break;
+      }
+    }
+    int[] output = new int[length];
+    int outputLength = 0;
+    // copy the first b code points to the output
+    for (int j = 0; j < b; j++) {
+      char c = input.charAt(j);
+      if (c >= INITIAL_N) {
+        return null;
+      }
+      output[outputLength++] = c;
+    }
+    int in = b > 0 ? b + 1 : 0;
+    while (in < length) {
+      int oldi = i;
+      int w = 1;
+      for (int k = BASE;; k += BASE) {
+        if (in >= length) {
+          return null;
+        }
+        int digit = digit(input.charAt(in++));
+        if (digit < 0 || digit > (Integer.MAX_VALUE - i) / w) {
+          return null;
+        }
+        i += digit * w;
+        int t = k <= bias ? TMIN : k >= bias + TMAX ? TMAX : k - bias;
+        if (digit < t) {
+          break;
+        }
+        if (w > Integer.MAX_VALUE / (BASE - t)) {
+          return null;
+        }
+        w *= BASE - t;
+      }
+      bias = adapt(i - oldi, outputLength + 1, oldi == 0);
+      if (i / (outputLength + 1) > Integer.MAX_VALUE - n) {
+        return null;
+      }
+      n += i / (outputLength + 1);
+      i %= outputLength + 1;
+      // a label is made of unicode scalar values
+      if (n > Character.MAX_CODE_POINT
+          || (n >= Character.MIN_SURROGATE && n <= Character.MAX_SURROGATE)) {
+        return null;
+      }
+      // each extended code point is at least one input character, output can not overflow
+      System.arraycopy(output, i, output, i + 1, outputLength - i);
+      output[i++] = n;
+      outputLength++;
+    }
+    return new String(output, 0, outputLength);
+  }
+
+  /**
+   * 5. Parameter values for Punycode
+   *
+   * @return the value of a digit, or -1 if the character is not a digit
+   */
+  private static int digit(char c) {
+    if (c >= 'a' && c <= 'z') {
+      return c - 'a';
+    }
+    if (c >= 'A' && c <= 'Z') {
+      return c - 'A';
+    }
+    if (c >= '0' && c <= '9') {
+      return c - '0' + 26;
+    }
+    return -1;
+  }
+
+  /**
+   * 6.3 Encoding procedure
+   *
+   * @param input the label to encode
+   * @return the encoded label, without its "xn--" prefix, or null on overflow
+   */
+  static String encode(CharSequence input) {
+    StringBuilder output = new StringBuilder(input.length() + 8);
+    return encode(input, output) ? output.toString() : null;
+  }
+
+  /**
+   * Same as {@link #encode(CharSequence)}, appending the encoded label to the specified output
+   *
+   * @param input the label to encode
+   * @param output the output to append the encoded label to
+   * @return true if the label was encoded, false on overflow
+   */
+  static boolean encode(CharSequence input, StringBuilder output) {
+    int[] codePoints = new int[input.length()];
+    int length = 0;
+    for (int i = 0; i < input.length();) {
+      int codePoint = Character.codePointAt(input, i);
+      i += Character.charCount(codePoint);
+      codePoints[length++] = codePoint;
+    }
+    int outputStart = output.length();
+    // copy the basic code points to the output, in order
+    for (int j = 0; j < length; j++) {
+      if (codePoints[j] < INITIAL_N) {
+        output.append((char) codePoints[j]);
+      }
+    }
+    int b = output.length() - outputStart;
+    int h = b;
+    if (b > 0) {
+      output.append(DELIMITER);
+    }
+    int n = INITIAL_N;
+    int delta = 0;
+    int bias = INITIAL_BIAS;
+    while (h < length) {
+      // let m be the minimum code point greater than or equal to n in the input
+      int m = Integer.MAX_VALUE;
+      for (int j = 0; j < length; j++) {
+        if (codePoints[j] >= n && codePoints[j] < m) {
+          m = codePoints[j];
+        }
+      }
+      if (m - n > (Integer.MAX_VALUE - delta) / (h + 1)) {
+        return false;
+      }
+      delta += (m - n) * (h + 1);
+      n = m;
+      for (int j = 0; j < length; j++) {
+        int codePoint = codePoints[j];
+        if (codePoint < n) {
+          if (delta == Integer.MAX_VALUE) {
+            return false;
+          }
+          delta++;
+        }
+        if (codePoint == n) {
+          int q = delta;
+          for (int k = BASE;; k += BASE) {
+            int t = k <= bias ? TMIN : k >= bias + TMAX ? TMAX : k - bias;
+            if (q < t) {
+              break;
+            }
+            output.append(encodeDigit(t + (q - t) % (BASE - t)));
+            q = (q - t) / (BASE - t);
+          }
+          output.append(encodeDigit(q));
+          bias = adapt(delta, h + 1, h == b);
+          delta = 0;
+          h++;
+        }
+      }
+      delta++;
+      n++;
+    }
+    return true;
+  }
+
+  /**
+   * 5. Parameter values for Punycode, digits are encoded lowercase
+   */
+  private static char encodeDigit(int digit) {
+    return (char) (digit < 26 ? 'a' + digit : '0' + digit - 26);
+  }
+}
@@ -14,18 +14,19 @@
  */
 package io.github.stephanebastian.whatwg.url.impl;
 
-import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 
 public class SerializerHelper {
-  static int compress(short[] ipPieces) {
+  private static final char[] LOWER_HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  static int compress(Ipv6Address address) {
     int result = 0;
     int largestNumberOf0 = 0;
     int currentNumberOf0 = 0;
-    for (int i = 0; i < ipPieces.length; i++) {
-      short ipPiece = ipPieces[i];
+    for (int i = 0; i < 8; i++) {
+      int ipPiece = address.piece(i);
       if (ipPiece == 0) {
         currentNumberOf0++;
       }
@@ -105,7 +106,7 @@ public class SerializerHelper {
       // 2.3
       serializeHost(url.host, output);
       // 2.4
-      if (url.port != null) {
+      if (url.port != UrlImpl.NO_PORT) {
         output.append(":");
         output.append(SerializerHelper.serializeInteger(url.port));
       }
@@ -114,7 +115,7 @@ public class SerializerHelper {
     // If url’s host is null, url does not have an opaque path, url’s path’s size is greater than 1,
     // and url’s path[0] is the empty string, then append U+002F (/) followed by U+002E (.) to
     // output.
-    else if (!url.hasAnOpaquePath() && url.path.size() > 1 && "".equals(url.path.get(0))) {
+    else if (!url.hasAnOpaquePath() && url.path.size() > 1 && url.path.isSegmentEmpty(0)) {
       output.append("/.");
     }
     // 4
@@ -161,7 +162,7 @@ public class SerializerHelper {
   static void serializeHost(Ipv4Address host, StringBuilder output) {
     Objects.requireNonNull(host);
     Objects.requireNonNull(output);
-    byte[] bytes = InfraHelper.getBytes(host.ip());
+    byte[] bytes = InfraHelper.getBytes(host.ipv4());
     output.append(SerializerHelper.serializeInteger(bytes[0] & 0x00FF));
     output.append(".");
     output.append(SerializerHelper.serializeInteger(bytes[1] & 0x00FF));
@@ -190,12 +191,13 @@ public class SerializerHelper {
   static void serializeHost(Ipv6Address host, StringBuilder output) {
     Objects.requireNonNull(host);
     Objects.requireNonNull(output);
-    short[] address = host.ip();
-    // int compress
-    int compress = compress(address);
+    // 2, 3
+    int compress = compress(host);
+    // 4
     boolean ignore0 = false;
+    // 5
     for (int pieceIndex = 0; pieceIndex <= 7; pieceIndex++) {
-      short ipPiece = address[pieceIndex];
+      int ipPiece = host.piece(pieceIndex);
       if (ignore0 && ipPiece == 0) {
         continue;
       } else if (ignore0) {
@@ -205,14 +207,14 @@ public class SerializerHelper {
         if (pieceIndex == 0) {
           output.append("::");
         } else {
-          output.append(":");
+          output.append(':');
         }
         ignore0 = true;
         continue;
       }
-      output.append(Integer.toHexString(ipPiece));
+      appendLowerHex(ipPiece, output);
       if (pieceIndex != 7) {
-        output.append(":");
+        output.append(':');
       }
     }
   }
@@ -236,13 +238,11 @@ public class SerializerHelper {
     Objects.requireNonNull(output);
     // 1
     if (host instanceof Ipv4Address) {
-      serializeHost((Ipv4Address) host, output);
+      output.append(host);
     }
     // 2
     else if (host instanceof Ipv6Address) {
-      output.append("[");
-      serializeHost((Ipv6Address) host, output);
-      output.append("]");
+      output.append(((Ipv6Address) host).serializedHost());
     }
     // 3
     else if (host instanceof Domain) {
@@ -254,6 +254,35 @@ public class SerializerHelper {
     }
   }
 
+  /**
+   * Serialize the specified host. The serialization of the IPv4 and IPv6 addresses is memoized by
+   * the addresses, brackets included, so that serializing a host never allocates
+   *
+   * @param host the host to serialize
+   * @return the serialized host
+   */
+  static String serializeHost(Host host) {
+    Objects.requireNonNull(host);
+    if (host instanceof Ipv6Address) {
+      return ((Ipv6Address) host).serializedHost();
+    }
+    return host.toString();
+  }
+
+  /**
+   * Append the shortest lowercase hexadecimal representation of a 16 bits value
+   */
+  private static void appendLowerHex(int value, StringBuilder output) {
+    boolean leadingZero = true;
+    for (int shift = 12; shift >= 0; shift -= 4) {
+      int digit = (value >>> shift) & 0xF;
+      if (digit != 0 || !leadingZero || shift == 0) {
+        output.append(LOWER_HEX_DIGITS[digit]);
+        leadingZero = false;
+      }
+    }
+  }
+
   static String serializeInteger(int value) {
     return Integer.toString(value);
   }
@@ -321,20 +350,19 @@ public class SerializerHelper {
         // 2
         StringBuilder serializedPath = new StringBuilder();
         serializePath(url, serializedPath);
-        try {
-          UrlImpl pathUrl =
-              new UrlParser().basicParse(serializedPath.toString(), null, StandardCharsets.UTF_8);
-          // 4
-          if ("http".equals(pathUrl.scheme) || "https".equals(pathUrl.scheme)
-              || "file".equals(pathUrl.scheme)) {
-            output.append(pathUrl.origin());
-            return;
-          }
-        } catch (Exception e) {
-          // 3
+        UrlImpl pathUrl = UrlParserImpl.threadLocal().tryBasicParse(serializedPath.toString(),
+            null, StandardCharsets.UTF_8, null, null);
+        // 3
+        if (pathUrl == null) {
           output.append("null");
           return;
         }
+        // 4
+        if ("http".equals(pathUrl.scheme) || "https".equals(pathUrl.scheme)
+            || "file".equals(pathUrl.scheme)) {
+          output.append(pathUrl.origin());
+          return;
+        }
         // 5
         output.append("null");
         return;
@@ -346,7 +374,7 @@ public class SerializerHelper {
         output.append(url.scheme);
         output.append("://");
         serializeHost(url.host, output);
-        if (url.port != null) {
+        if (url.port != UrlImpl.NO_PORT) {
           output.append(":");
           output.append(url.port);
         }
@@ -373,14 +401,12 @@ public class SerializerHelper {
   static void serializePath(UrlImpl url, StringBuilder output) {
     if (url.hasAnOpaquePath()) {
       if (!url.path.isEmpty()) {
-        output.append(url.path.get(0));
+        url.path.appendSegmentTo(0, output);
       }
       return;
     }
-    for (String segment : url.path) {
-      output.append("/");
-      output.append(segment);
-    }
+    // the segments are stored preceded by U+002F (/)
+    url.path.appendTo(output);
   }
 
   /**
@@ -406,25 +432,50 @@ public class SerializerHelper {
    *   </ul>
    * </pre>
    *
+   * The encoding is always UTF-8, it is done inline, without CharsetEncoder, so that no encoder
+   * has to be held or shared by the callers
+   *
    * @param tuples tuples to encode
    * @param output the output buffer
    */
-  static void serializeFormUrlEncoded(List<UrlSearchParam> tuples, CharsetEncoder encoder,
-      StringBuilder output) {
+  static void serializeFormUrlEncoded(List<UrlSearchParam> tuples, StringBuilder output) {
     Objects.requireNonNull(tuples);
-    Objects.requireNonNull(encoder);
     Objects.requireNonNull(output);
+    // 1
+    // 2
+    // 3
     for (UrlSearchParam tuple : tuples) {
-      String encodedName = UrlHelper.percentEncodeAfterEncoding(encoder, tuple.name(),
-          CodepointHelper::isInUrlEncodedPercentEncodeSet, true);
-      String encodedValue = UrlHelper.percentEncodeAfterEncoding(encoder, tuple.value(),
-          CodepointHelper::isInUrlEncodedPercentEncodeSet, true);
+      // 3.1
+      // 3.4
       if (output.length() > 0) {
         output.append('&');
       }
-      output.append(encodedName);
+      // 3.2
+      // 3.5
+      urlEncodedPercentEncode(tuple.name(), output);
       output.append('=');
-      output.append(encodedValue);
+      // 3.3
+      urlEncodedPercentEncode(tuple.value(), output);
+    }
+  }
+
+  /**
+   * Run percent-encode after encoding with UTF-8, the application/x-www-form-urlencoded
+   * percent-encode set and spaceAsPlus set to true and append the result to output.
+   *
+   * @param input the input to encode
+   * @param output the output buffer
+   */
+  private static void urlEncodedPercentEncode(String input, StringBuilder output) {
+    for (int i = 0; i < input.length();) {
+      int codepoint = input.codePointAt(i);
+      if (codepoint == CodepointHelper.CP_SPACE) {
+        output.append('+');
+      } else {
+        UrlHelper.utf8PercentEncode(codepoint, CodepointHelper.URL_ENCODED_PERCENT_ENCODE_SET,
+            output);
+      }
+      i += Character.charCount(codepoint);
     }
   }
 
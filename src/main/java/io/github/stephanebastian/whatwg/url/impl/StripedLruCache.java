@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe map evicting the least recently used entries.<br>
+ * <br>
+ * The map is split into segments, each one being a LinkedHashMap in access order guarded by its
+ * own lock, so that threads looking up different keys rarely contend. The eviction is LRU within
+ * each segment and the capacity of the segments adds up to the capacity of the map
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+class StripedLruCache<K, V> {
+  private static final int MAX_SEGMENTS = 64;
+  // segments holding very few entries would make the eviction close to random
+  private static final int MIN_SEGMENT_CAPACITY = 16;
+  private final Segment<K, V>[] segments;
+  private final int segmentMask;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  StripedLruCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be greater than 0");
+    }
+    int maxSegments = Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY));
+    int numberOfSegments = 1;
+    while (numberOfSegments * 2 <= maxSegments) {
+      numberOfSegments *= 2;
+    }
+    segments = new Segment[numberOfSegments];
+    for (int i = 0; i < numberOfSegments; i++) {
+      int remainder = i < capacity % numberOfSegments ? 1 : 0;
+      segments[i] = new Segment<>(capacity / numberOfSegments + remainder);
+    }
+    segmentMask = numberOfSegments - 1;
+  }
+
+  void clear() {
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * @return the number of entries evicted to make room for new ones
+   */
+  long evictionCount() {
+    long result = 0;
+    for (Segment<K, V> segment : segments) {
+      result += segment.evictionCount();
+    }
+    return result;
+  }
+
+  /**
+   * @return the value of the key, or null if the map does not contain the key
+   */
+  V get(K key) {
+    return segment(key).get(key);
+  }
+
+  void put(K key, V value) {
+    segment(key).put(key, value);
+  }
+
+  /**
+   * Associate the value to the key, unless the map already contains the key
+   *
+   * @return the value already associated to the key, or null if the value has been added
+   */
+  V putIfAbsent(K key, V value) {
+    return segment(key).putIfAbsent(key, value);
+  }
+
+  private Segment<K, V> segment(K key) {
+    int hash = key.hashCode();
+    // spread the high bits, as the hash codes of similar keys tend to differ in the low bits only
+    hash ^= (hash >>> 16);
+    return segments[hash & segmentMask];
+  }
+
+  int size() {
+    int result = 0;
+    for (Segment<K, V> segment : segments) {
+      result += segment.size();
+    }
+    return result;
+  }
+
+  private static class Segment<K, V> {
+    private final LinkedHashMap<K, V> entries;
+    // updated under the lock of the segment, as evictions happen while putting an entry
+    private long evictionCount;
+
+    Segment(int capacity) {
+      entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+          if (size() > capacity) {
+            evictionCount++;
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    synchronized void clear() {
+      entries.clear();
+    }
+
+    synchronized long evictionCount() {
+      return evictionCount;
+    }
+
+    synchronized V get(K key) {
+      return entries.get(key);
+    }
+
+    synchronized void put(K key, V value) {
+      entries.put(key, value);
+    }
+
+    synchronized V putIfAbsent(K key, V value) {
+      return entries.putIfAbsent(key, value);
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+  }
+}
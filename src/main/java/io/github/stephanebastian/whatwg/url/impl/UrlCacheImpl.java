@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlCache;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
+import io.github.stephanebastian.whatwg.url.ValidationException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parse results are held in a {@link StripedLruCache}. Inputs that fail to parse are cached as
+ * well, as a shared failure result. Hits and misses are counted with LongAdders, which do not
+ * contend when many threads update them
+ */
+public class UrlCacheImpl implements UrlCache {
+  private final StripedLruCache<String, UrlParseResult> parseResults;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+
+  private UrlCacheImpl(int capacity) {
+    parseResults = new StripedLruCache<>(capacity);
+  }
+
+  public static UrlCache create(int capacity) {
+    return new UrlCacheImpl(capacity);
+  }
+
+  @Override
+  public void clear() {
+    parseResults.clear();
+  }
+
+  @Override
+  public Url create(String input) {
+    UrlParseResult result = tryCreate(input);
+    if (!result.isSuccess()) {
+      throw new ValidationException(result.failure());
+    }
+    return result.url();
+  }
+
+  @Override
+  public long hitCount() {
+    return hitCount.sum();
+  }
+
+  @Override
+  public long missCount() {
+    return missCount.sum();
+  }
+
+  @Override
+  public int size() {
+    return parseResults.size();
+  }
+
+  @Override
+  public UrlParseResult tryCreate(String input) {
+    Objects.requireNonNull(input);
+    UrlParseResult result = parseResults.get(input);
+    if (result != null) {
+      hitCount.increment();
+      return result;
+    }
+    missCount.increment();
+    // the parse happens outside of the lock. Two threads missing the same input at the same time
+    // both parse it, which is harmless
+    UrlParserImpl parser = UrlParserImpl.threadLocal();
+    UrlImpl url = parser.tryBasicParse(input, null, null, null, null);
+    result = url == null ? UrlParseResultImpl.failure(parser.failure())
+        : UrlParseResultImpl.success(url.freeze());
+    parseResults.put(input, result);
+    return result;
+  }
+}
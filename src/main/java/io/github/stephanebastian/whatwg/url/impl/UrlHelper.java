@@ -14,7 +14,6 @@
  */
 package io.github.stephanebastian.whatwg.url.impl;
 
-import com.ibm.icu.text.IDNA;
 import io.github.stephanebastian.whatwg.url.ValidationError;
 import io.github.stephanebastian.whatwg.url.ValidationException;
 import java.io.ByteArrayOutputStream;
@@ -24,17 +23,24 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.function.BiPredicate;
-import java.util.function.IntPredicate;
 
 class UrlHelper {
-  static IDNA uts46NonStrictInstance = IDNA.getUTS46Instance(IDNA.CHECK_BIDI | IDNA.CHECK_CONTEXTJ
-      | /* Transitional_Processing set to false */ IDNA.NONTRANSITIONAL_TO_ASCII
-      | IDNA.NONTRANSITIONAL_TO_UNICODE);
-  static IDNA uts46strictInstance = IDNA.getUTS46Instance(IDNA.CHECK_BIDI | IDNA.CHECK_CONTEXTJ
-      | /* Transitional_Processing set to false */ IDNA.NONTRANSITIONAL_TO_ASCII
-      | IDNA.NONTRANSITIONAL_TO_UNICODE | /* strict set to true */ IDNA.USE_STD3_RULES);
+  private static final char[] UPPER_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  // ASCII codepoints as strings, and their percent-encoded form
+  private static final String[] ASCII = new String[0x80];
+  private static final String[] PERCENT_ENCODED_ASCII = new String[0x80];
+
+  static {
+    for (int codepoint = 0; codepoint < ASCII.length; codepoint++) {
+      ASCII[codepoint] = String.valueOf((char) codepoint);
+      StringBuilder percentEncoded = new StringBuilder(3);
+      appendPercentEncodedByte(codepoint, percentEncoded);
+      PERCENT_ENCODED_ASCII[codepoint] = percentEncoded.toString();
+    }
+  }
 
   public static int codePoint(CharSequence input, int pointer) {
     Objects.requireNonNull(input);
@@ -83,45 +89,90 @@ class UrlHelper {
    * @param domain the domain to convert
    * @param beStrict a boolean set to true to perform a strict conversion
    * @return the converted value
+   * @exception ValidationException if the conversion returns failure
    */
   public static String domainToAscii(String domain, boolean beStrict) {
+    String result = tryDomainToAscii(domain, beStrict);
+    if (result == null) {
+      throw new ValidationException(ValidationError.DOMAIN_TO_ASCII);
+    }
+    return result;
+  }
+
+  /**
+   * Same as {@link #domainToAscii(String, boolean)} but return null instead of throwing an
+   * exception when the conversion returns failure
+   *
+   * @param domain the domain to convert
+   * @param beStrict a boolean set to true to perform a strict conversion
+   * @return the converted value, or null if the conversion returns failure
+   */
+  static String tryDomainToAscii(String domain, boolean beStrict) {
     // special case for domain with empty labels
     if (".".equals(domain) || "..".equals(domain)) {
       return domain;
     }
-    // 1
-    // we've got to use UTR46 from ICU4J otherwise, IDN built-in java choke on some domain names
-    StringBuilder result = new StringBuilder(domain.length());
-    IDNA.Info idnaInfo = new IDNA.Info();
-    if (beStrict) {
-      uts46strictInstance.nameToASCII(domain, result, idnaInfo);
-    } else {
-      uts46NonStrictInstance.nameToASCII(domain, result, idnaInfo);
-    }
-    // 2
-    for (IDNA.Error error : idnaInfo.getErrors()) {
-      // equivalent to checkHyphens==false
-      if (IDNA.Error.HYPHEN_3_4.equals(error) || IDNA.Error.LEADING_HYPHEN.equals(error)
-          || IDNA.Error.TRAILING_HYPHEN.equals(error)) {
-        continue;
+    // most domains are made of ASCII letters, digits, hyphens and dots only. UTS46 does not map
+    // them other than lowercasing them, so they are converted without loading the UTS46 tables
+    if (!beStrict) {
+      String result = tryLdhDomainToAscii(domain);
+      if (result != null) {
+        return result;
       }
-      // in non-strict mode let ignore label-too-long or domain-too-long
-      if (!beStrict && (IDNA.Error.DOMAIN_NAME_TOO_LONG.equals(error)
-          || IDNA.Error.LABEL_TOO_LONG.equals(error))) {
-        continue;
+    }
+    IdnaCacheImpl cache = IdnaCacheImpl.get();
+    return cache == null ? uts46DomainToAscii(domain, beStrict)
+        : cache.domainToAscii(domain, beStrict);
+  }
+
+  /**
+   * Convert a domain made of ASCII alphanumerics, U+002D (-) and U+002E (.) only, none of its
+   * labels starting with "xn--". As noted by the domain to ASCII algorithm, with beStrict set to
+   * false the conversion of such a domain is equivalent to ASCII lowercasing it: the
+   * checks skipped (hyphens, lengths, empty labels) never fail in that mode
+   *
+   * @param domain the domain to convert
+   * @return the converted value, or null if the domain does not qualify
+   */
+  static String tryLdhDomainToAscii(String domain) {
+    int length = domain.length();
+    if (length == 0) {
+      return null;
+    }
+    boolean hasUpperAlpha = false;
+    int labelStart = 0;
+    for (int i = 0; i < length; i++) {
+      char c = domain.charAt(i);
+      if (c == '.') {
+        labelStart = i + 1;
+      } else if (InfraHelper.isAsciiUpperAlpha(c)) {
+        hasUpperAlpha = true;
+      } else if (!InfraHelper.isAsciiAlphanumeric(c) && c != '-') {
+        return null;
       }
-      // lets ignore empty labels
-      if (IDNA.Error.EMPTY_LABEL.equals(error)) {
-        continue;
+      // the label is a punycode label, which UTS46 decodes to validate it
+      if (i == labelStart + 3 && c == '-' && domain.charAt(i - 1) == '-'
+          && (domain.charAt(i - 2) == 'n' || domain.charAt(i - 2) == 'N')
+          && (domain.charAt(i - 3) == 'x' || domain.charAt(i - 3) == 'X')) {
+        return null;
       }
-      throw new ValidationException(ValidationError.DOMAIN_TO_ASCII);
     }
+    // the domain is ASCII, so that lowercasing it in the root locale is ASCII lowercasing it
+    return hasUpperAlpha ? domain.toLowerCase(Locale.ROOT) : domain;
+  }
+
+  /**
+   * Same as {@link #tryDomainToAscii(String, boolean)}, always going through UTS46
+   */
+  static String uts46DomainToAscii(String domain, boolean beStrict) {
+    // 1, 2 - the errors ignored by the options of the algorithm are not reported by Uts46
+    String result = Uts46.toAscii(domain, beStrict);
     // 3
-    if (result.length() == 0) {
-      throw new ValidationException(ValidationError.DOMAIN_TO_ASCII);
+    if (result == null || result.isEmpty()) {
+      return null;
     }
     // 4
-    return result.toString();
+    return result;
   }
 
   /**
@@ -145,25 +196,27 @@ class UrlHelper {
    * @return the converted value
    */
   public static String domainToUnicode(String domain, boolean beStrict) {
-    try {
-      // 1
-      // we've got to use UTR46 from ICU4J otherwise, IDN built-in java choke on some domain names
-      StringBuilder result = new StringBuilder(domain.length());
-      IDNA.Info idnaInfo = new IDNA.Info();
-      if (beStrict) {
-        uts46strictInstance.nameToUnicode(domain, result, idnaInfo);
-      } else {
-        uts46NonStrictInstance.nameToUnicode(domain, result, idnaInfo);
-      }
-      if (result.length() == 0) {
-        throw new ValidationException(ValidationError.DOMAIN_TO_ASCII);
-      }
-      // 4
-      return result.toString();
-    } catch (Exception e) {
-      // 2
+    IdnaCacheImpl cache = IdnaCacheImpl.get();
+    String result = cache == null ? uts46DomainToUnicode(domain, beStrict)
+        : cache.domainToUnicode(domain, beStrict);
+    if (result == null) {
       throw new ValidationException(ValidationError.DOMAIN_TO_ASCII);
     }
+    return result;
+  }
+
+  /**
+   * Same as {@link #domainToUnicode(String, boolean)}, always going through UTS46 and returning
+   * null instead of throwing an exception on failure
+   */
+  static String uts46DomainToUnicode(String domain, boolean beStrict) {
+    // 1
+    String result = Uts46.toUnicode(domain, beStrict);
+    if (result.isEmpty()) {
+      return null;
+    }
+    // 2
+    return result;
   }
 
   public static Integer getDefaultSchemePort(String scheme) {
@@ -182,6 +235,49 @@ class UrlHelper {
     return null;
   }
 
+  /**
+   * Return the scheme held by the given buffer, sharing the string constant of the special schemes
+   * and of a few common ones rather than allocating a new string per url
+   */
+  public static String internScheme(CharSequence scheme) {
+    switch (scheme.length()) {
+      case 2:
+        if ("ws".contentEquals(scheme)) {
+          return "ws";
+        }
+        break;
+      case 3:
+        if ("ftp".contentEquals(scheme)) {
+          return "ftp";
+        } else if ("wss".contentEquals(scheme)) {
+          return "wss";
+        }
+        break;
+      case 4:
+        if ("http".contentEquals(scheme)) {
+          return "http";
+        } else if ("file".contentEquals(scheme)) {
+          return "file";
+        } else if ("blob".contentEquals(scheme)) {
+          return "blob";
+        } else if ("data".contentEquals(scheme)) {
+          return "data";
+        }
+        break;
+      case 5:
+        if ("https".contentEquals(scheme)) {
+          return "https";
+        }
+        break;
+      case 6:
+        if ("mailto".contentEquals(scheme)) {
+          return "mailto";
+        }
+        break;
+    }
+    return scheme.toString();
+  }
+
   public static boolean hasAsciiTabOrNewline(int[] codepoints) {
     return numberOfAsciiTabOrNewline(codepoints) > 0;
   }
@@ -424,9 +520,9 @@ class UrlHelper {
   }
 
   public static String percentEncodeAfterEncoding(CharsetEncoder encoder, int codepoint,
-      IntPredicate isInEncodeSet, boolean spaceAsPlus) {
+      int percentEncodeSet, boolean spaceAsPlus) {
     return percentEncodeAfterEncoding(encoder, new String(Character.toChars(codepoint)),
-        isInEncodeSet, spaceAsPlus);
+        percentEncodeSet, spaceAsPlus);
   }
 
   /**
@@ -465,7 +561,7 @@ class UrlHelper {
    * </pre>
    */
   public static String percentEncodeAfterEncoding(CharsetEncoder encoder, CharSequence input,
-      IntPredicate isInEncodeSet, boolean spaceAsPlus) {
+      int percentEncodeSet, boolean spaceAsPlus) {
     // early out
     if (input.length() == 0) {
       return "";
@@ -493,7 +589,7 @@ class UrlHelper {
             int isomorph = InfraHelper.getIsomorphInt(aByte);
             // 5.3.3
             // 5.3.4
-            if (!isInEncodeSet.test(isomorph)) {
+            if (!CodepointHelper.isInPercentEncodeSet(isomorph, percentEncodeSet)) {
               output.write(isomorph);
             }
             // 5.3.5
@@ -593,20 +689,96 @@ class UrlHelper {
             || cp3 == CodepointHelper.CP_QUESTION_MARK || cp3 == CodepointHelper.CP_HASH)));
   }
 
-  public static String utf8PercentEncode(CharSequence input, IntPredicate isInPercentEncodeSet) {
-    return utf8PercentEncode(StandardCharsets.UTF_8.newEncoder(), input, isInPercentEncodeSet);
+  /**
+   * UTF-8 percent-encode each codepoint of the specified input. Surrogates that are not part of a
+   * pair are not scalar values and are encoded as U+FFFD
+   *
+   * @param input the input to encode
+   * @param percentEncodeSet the percent-encode set
+   * @return the percent encoded value
+   */
+  public static String utf8PercentEncode(CharSequence input, int percentEncodeSet) {
+    StringBuilder result = new StringBuilder(input.length());
+    utf8PercentEncode(input, percentEncodeSet, result);
+    return result.toString();
   }
 
-  public static String utf8PercentEncode(CharsetEncoder utf8Encoder, CharSequence input,
-      IntPredicate isInPercentEncodeSet) {
-    StringBuilder result = new StringBuilder(input.length());
-    for (int i = 0; i < input.length(); i++) {
+  /**
+   * UTF-8 percent-encode each codepoint of the specified input and append the result to output.
+   * Surrogates that are not part of a pair are not scalar values and are encoded as U+FFFD
+   *
+   * @param input the input to encode
+   * @param percentEncodeSet the percent-encode set
+   * @param output where to append the result
+   */
+  static void utf8PercentEncode(CharSequence input, int percentEncodeSet, StringBuilder output) {
+    for (int i = 0; i < input.length();) {
       int codePoint = Character.codePointAt(input, i);
-      result.append(utf8PercentEncode(utf8Encoder, codePoint, isInPercentEncodeSet));
+      utf8PercentEncode(codePoint, percentEncodeSet, output);
+      i += Character.charCount(codePoint);
+    }
+  }
+
+  /**
+   * UTF-8 percent-encode the specified codepoint.
+   *
+   * @param codepoint the codepoint to encode
+   * @param percentEncodeSet the percent-encode set
+   * @return the percent encoded value. ASCII codepoints return shared instances
+   */
+  static String utf8PercentEncode(int codepoint, int percentEncodeSet) {
+    if (codepoint >= 0 && codepoint < 0x80) {
+      return CodepointHelper.isInPercentEncodeSet(codepoint, percentEncodeSet)
+          ? PERCENT_ENCODED_ASCII[codepoint]
+          : ASCII[codepoint];
     }
+    StringBuilder result = new StringBuilder(12);
+    utf8PercentEncode(codepoint, percentEncodeSet, result);
     return result.toString();
   }
 
+  /**
+   * UTF-8 percent-encode the specified codepoint and append the result to output. This gives the
+   * same result as running percent-encode after encoding with UTF-8, but the UTF-8 encoding is
+   * done inline, without CharsetEncoder or intermediate buffers. A surrogate is not a scalar value
+   * and is encoded as U+FFFD
+   *
+   * @param codepoint the codepoint to encode
+   * @param percentEncodeSet the percent-encode set
+   * @param output where to append the result
+   */
+  static void utf8PercentEncode(int codepoint, int percentEncodeSet, StringBuilder output) {
+    if (codepoint < 0x80) {
+      if (CodepointHelper.isInPercentEncodeSet(codepoint, percentEncodeSet)) {
+        appendPercentEncodedByte(codepoint, output);
+      } else {
+        output.append((char) codepoint);
+      }
+      return;
+    }
+    // all percent-encode sets include non-ASCII codepoints, every byte is percent encoded
+    if (codepoint < 0x800) {
+      appendPercentEncodedByte(0xC0 | (codepoint >> 6), output);
+    } else {
+      if (codepoint < 0x10000) {
+        if (InfraHelper.isSurrogate(codepoint)) {
+          codepoint = 0xFFFD;
+        }
+        appendPercentEncodedByte(0xE0 | (codepoint >> 12), output);
+      } else {
+        appendPercentEncodedByte(0xF0 | (codepoint >> 18), output);
+        appendPercentEncodedByte(0x80 | ((codepoint >> 12) & 0x3F), output);
+      }
+      appendPercentEncodedByte(0x80 | ((codepoint >> 6) & 0x3F), output);
+    }
+    appendPercentEncodedByte(0x80 | (codepoint & 0x3F), output);
+  }
+
+  private static void appendPercentEncodedByte(int aByte, StringBuilder output) {
+    output.append('%').append(UPPER_HEX_DIGITS[(aByte >> 4) & 0xF])
+        .append(UPPER_HEX_DIGITS[aByte & 0xF]);
+  }
+
   /**
    * To UTF-8 percent-encode a scalar value scalarValue using a percentEncodeSet, return the result
    * of running percent-encode after encoding with UTF-8, scalarValue as a string, and
@@ -617,7 +789,7 @@ class UrlHelper {
    * @return the percent encoded value
    */
   public static String utf8PercentEncode(CharsetEncoder utf8Encoder, int codepoint,
-      IntPredicate isInPercentEncodeSet) {
-    return percentEncodeAfterEncoding(utf8Encoder, codepoint, isInPercentEncodeSet, false);
+      int percentEncodeSet) {
+    return percentEncodeAfterEncoding(utf8Encoder, codepoint, percentEncodeSet, false);
   }
 }
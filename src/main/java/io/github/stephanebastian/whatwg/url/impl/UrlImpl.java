@@ -15,11 +15,11 @@
 package io.github.stephanebastian.whatwg.url.impl;
 
 import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlHost;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
 import io.github.stephanebastian.whatwg.url.UrlSearchParams;
 import io.github.stephanebastian.whatwg.url.ValidationError;
-import io.github.stephanebastian.whatwg.url.impl.UrlParser.State;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.StandardCharsets;
+import io.github.stephanebastian.whatwg.url.impl.UrlParserImpl.State;
 import java.util.*;
 import java.util.function.BiConsumer;
 
@@ -33,12 +33,17 @@ public class UrlImpl implements Url {
   String password = "";
   // A URL’s host is null or a host. It is initially null.
   Host host;
+  // the value of a null port
+  static final int NO_PORT = -1;
   // A URL’s port is either null or a 16-bit unsigned integer that identifies a networking port. It
-  // is initially null.
-  Integer port;
+  // is initially null, represented by NO_PORT to avoid boxing.
+  int port = NO_PORT;
   // A URL’s path is either a URL path segment or a list of zero or more URL path segments, usually
   // identifying a location. It is initially « ».
-  List<String> path = new ArrayList<>();
+  UrlPath path = UrlPath.EMPTY;
+  // the path may be shared with another url, typically the base url it has been resolved against,
+  // or be the shared empty path. It must be copied before being modified, see mutablePath()
+  private boolean pathShared = true;
   // A URL’s query is either null or an ASCII string. It is initially null.
   String query;
   // A URL’s fragment is either null or an ASCII string that can be used for further processing on
@@ -46,9 +51,12 @@ public class UrlImpl implements Url {
   String fragment;
   boolean hasAnOpaquePath;
   private UrlSearchParamsImpl searchParams;
-  // lets cache the utf8Encoder
-  private CharsetEncoder utf8Encoder;
   private Collection<ValidationError> validationErrors;
+  // serializations computed lazily, kept until a change of the components they depend on. The
+  // hostname and the pathname are not memoized, the host and the path hold their serialization
+  private String serializedHref;
+  private String serializedHost;
+  private String serializedOrigin;
 
   UrlImpl() {
   }
@@ -57,17 +65,57 @@ public class UrlImpl implements Url {
     if (input == null && baseUrl == null) {
       return new UrlImpl();
     }
-    Objects.requireNonNull(input);
-    UrlParser parser = new UrlParser();
-    UrlImpl parsedBaseUrl = null;
-    if (baseUrl != null) {
-      parsedBaseUrl = parser.basicParse(baseUrl, null, null);
+    return UrlParserImpl.threadLocal().parse(input, baseUrl);
+  }
+
+  public static Url createRelativeTo(String input, Url base) {
+    return UrlParserImpl.threadLocal().parseRelativeTo(input, base);
+  }
+
+  public static UrlParseResult tryCreateRelativeTo(String input, Url base) {
+    return UrlParserImpl.threadLocal().tryParseRelativeTo(input, base);
+  }
+
+  public static UrlParseResult tryCreate(String input, String baseUrl) {
+    if (input == null && baseUrl == null) {
+      return UrlParseResultImpl.success(new UrlImpl());
+    }
+    return UrlParserImpl.threadLocal().tryParse(input, baseUrl);
+  }
+
+  public static boolean canParse(String input, String baseUrl) {
+    if (input == null && baseUrl == null) {
+      return true;
     }
-    return parser.basicParse(input, parsedBaseUrl, null);
+    return UrlParserImpl.threadLocal().canParse(input, baseUrl);
+  }
+
+  /**
+   * Return a copy of this url. The components are shared with this url: they are immutable, except
+   * the path which is copied by the url modifying it first. The search params are created lazily
+   * from the query and the validation errors are not copied
+   *
+   * @return a copy of this url
+   */
+  UrlImpl copy() {
+    UrlImpl result = new UrlImpl();
+    result.scheme = scheme;
+    result.username = username;
+    result.password = password;
+    result.host = host;
+    result.port = port;
+    result.path(this);
+    result.query = query;
+    result.fragment = fragment;
+    result.serializedHref = serializedHref;
+    result.serializedHost = serializedHost;
+    result.serializedOrigin = serializedOrigin;
+    return result;
   }
 
   void appendFragment(String fragment) {
     Objects.requireNonNull(fragment);
+    serializedHref = null;
     if (this.fragment == null) {
       this.fragment = fragment;
     } else {
@@ -75,8 +123,19 @@ public class UrlImpl implements Url {
     }
   }
 
+  /**
+   * Set the query of this url, as the search params do when they are modified
+   *
+   * @param query the query to set, possibly null
+   */
+  void query(String query) {
+    this.query = query;
+    serializedHref = null;
+  }
+
   public Url appendQuery(String value) {
     Objects.requireNonNull(value);
+    serializedHref = null;
     if (query == null) {
       query = value;
     } else {
@@ -99,6 +158,11 @@ public class UrlImpl implements Url {
     return hasAnOpaquePath;
   }
 
+  @Override
+  public Url freeze() {
+    return new ImmutableUrl(this);
+  }
+
   /**
    * The hash getter steps are:
    * <ul>
@@ -134,6 +198,7 @@ public class UrlImpl implements Url {
   @Override
   public Url hash(String value) {
     Objects.requireNonNull(value);
+    serializedHref = null;
     // 1
     if (value.isEmpty()) {
       // 1.1
@@ -150,10 +215,7 @@ public class UrlImpl implements Url {
     // 3
     fragment = "";
     // 4
-    try {
-      new UrlParser().basicParse(value, null, null, this, State.FRAGMENT);
-    } catch (Exception ignored) {
-    }
+    UrlParserImpl.threadLocal().tryBasicParse(value, null, null, this, State.FRAGMENT);
     return this;
   }
 
@@ -171,16 +233,19 @@ public class UrlImpl implements Url {
     if (host == null) {
       return "";
     }
-    if (port == null) {
+    if (port == NO_PORT) {
+      return hostname();
+    }
+    String result = serializedHost;
+    if (result == null) {
       StringBuilder buffer = new StringBuilder();
-      SerializerHelper.serializeHost(host, buffer);
-      return buffer.toString();
+      buffer.append(hostname());
+      buffer.append(":");
+      buffer.append(SerializerHelper.serializeInteger(port));
+      result = buffer.toString();
+      serializedHost = result;
     }
-    StringBuilder buffer = new StringBuilder();
-    SerializerHelper.serializeHost(host, buffer);
-    buffer.append(":");
-    buffer.append(SerializerHelper.serializeInteger(port));
-    return buffer.toString();
+    return result;
   }
 
   /**
@@ -193,13 +258,11 @@ public class UrlImpl implements Url {
   @Override
   public Url host(String value) {
     Objects.requireNonNull(value);
+    hostChanged();
     if (hasAnOpaquePath()) {
       return this;
     }
-    try {
-      new UrlParser().basicParse(value, null, null, this, State.HOST);
-    } catch (Exception ignored) {
-    }
+    UrlParserImpl.threadLocal().tryBasicParse(value, null, null, this, State.HOST);
     return this;
   }
 
@@ -215,9 +278,8 @@ public class UrlImpl implements Url {
     if (host == null) {
       return "";
     }
-    StringBuilder buffer = new StringBuilder();
-    SerializerHelper.serializeHost(host, buffer);
-    return buffer.toString();
+    // hosts are immutable and memoize their serialization
+    return SerializerHelper.serializeHost(host);
   }
 
   /**
@@ -230,13 +292,11 @@ public class UrlImpl implements Url {
   @Override
   public Url hostname(String value) {
     Objects.requireNonNull(value);
+    hostChanged();
     if (hasAnOpaquePath()) {
       return this;
     }
-    try {
-      new UrlParser().basicParse(value, null, null, this, State.HOSTNAME);
-    } catch (Exception ignored) {
-    }
+    UrlParserImpl.threadLocal().tryBasicParse(value, null, null, this, State.HOSTNAME);
     return this;
   }
 
@@ -246,9 +306,14 @@ public class UrlImpl implements Url {
    */
   @Override
   public String href() {
-    StringBuilder result = new StringBuilder();
-    SerializerHelper.serialize(this, false, result);
-    return result.toString();
+    String result = serializedHref;
+    if (result == null) {
+      StringBuilder buffer = new StringBuilder();
+      SerializerHelper.serialize(this, false, buffer);
+      result = buffer.toString();
+      serializedHref = result;
+    }
+    return result;
   }
 
   /**
@@ -268,19 +333,44 @@ public class UrlImpl implements Url {
    */
   public Url href(String value) {
     UrlImpl parsedUrl = (UrlImpl) Url.create(value);
+    clearSerializations();
     this.fragment = parsedUrl.fragment;
     this.hasAnOpaquePath = parsedUrl.hasAnOpaquePath;
     this.host = parsedUrl.host;
     this.password = parsedUrl.password;
     this.path = parsedUrl.path;
+    this.pathShared = parsedUrl.pathShared;
     this.port = parsedUrl.port;
     this.query = parsedUrl.query;
     this.scheme = parsedUrl.scheme;
-    this.searchParams = parsedUrl.searchParams;
     this.username = parsedUrl.username;
+    reinitializeSearchParams(query);
     return this;
   }
 
+  /**
+   * Clear the serializations depending on the host or the port
+   */
+  private void hostChanged() {
+    serializedHref = null;
+    serializedHost = null;
+    serializedOrigin = null;
+  }
+
+  /**
+   * Clear the serializations depending on the path. The pathname is not memoized since a path holds
+   * its serialization
+   */
+  private void pathChanged() {
+    serializedHref = null;
+  }
+
+  private void clearSerializations() {
+    serializedHref = null;
+    serializedHost = null;
+    serializedOrigin = null;
+  }
+
   boolean includeCredentials() {
     return !username.isEmpty() || !password.isEmpty();
   }
@@ -291,9 +381,19 @@ public class UrlImpl implements Url {
 
   @Override
   public String origin() {
-    StringBuilder buffer = new StringBuilder();
-    SerializerHelper.serializeOrigin(this, buffer);
-    return buffer.toString();
+    String result = serializedOrigin;
+    if (result == null) {
+      StringBuilder buffer = new StringBuilder();
+      SerializerHelper.serializeOrigin(this, buffer);
+      result = buffer.toString();
+      serializedOrigin = result;
+    }
+    return result;
+  }
+
+  @Override
+  public UrlHost parsedHost() {
+    return host;
   }
 
   /**
@@ -314,28 +414,89 @@ public class UrlImpl implements Url {
   @Override
   public Url password(String value) {
     Objects.requireNonNull(value);
+    serializedHref = null;
     if (canNotHaveUsernamePasswordHost()) {
       return this;
     }
-    password = UrlHelper.utf8PercentEncode(utf8Encoder(), value,
-        CodepointHelper::isInUserInfoPercentEncodeSet);
+    password = UrlHelper.utf8PercentEncode(value, CodepointHelper.USERINFO_PERCENT_ENCODE_SET);
     return this;
   }
 
+  /**
+   * Reset this url to the state of a new URL
+   */
+  void reset() {
+    scheme = "";
+    username = "";
+    password = "";
+    host = null;
+    port = NO_PORT;
+    path = UrlPath.EMPTY;
+    pathShared = true;
+    query = null;
+    fragment = null;
+    hasAnOpaquePath = false;
+    reinitializeSearchParams(null);
+    validationErrors = null;
+    clearSerializations();
+  }
+
+  /**
+   * Set the path of this url to the path of the specified url. The path is shared by both urls
+   * until one of them modifies it
+   */
   void path(UrlImpl url) {
-    this.path.clear();
-    this.path.addAll(url.path);
+    pathChanged();
+    this.path = url.path;
+    this.pathShared = true;
+    if (!url.pathShared) {
+      url.pathShared = true;
+    }
     this.hasAnOpaquePath = url.hasAnOpaquePath;
   }
 
+  /**
+   * Consider the path as shared, so that it is copied before being modified
+   */
+  void markPathShared() {
+    pathShared = true;
+  }
+
+  /**
+   * @return the path, to be modified. If the path is shared with another url, it is copied first
+   */
+  UrlPath mutablePath() {
+    pathChanged();
+    if (pathShared) {
+      path = new UrlPath(path);
+      pathShared = false;
+    }
+    return path;
+  }
+
+  /**
+   * Compact the path once it has been modified, see {@link UrlPath#compact()}
+   */
+  void compactPath() {
+    if (!pathShared) {
+      UrlPath compactedPath = path.compact();
+      if (compactedPath != path) {
+        path = compactedPath;
+        pathShared = true;
+      }
+    }
+  }
+
   /**
    * The pathname getter steps are to return the result of URL path serializing this’s URL:
    */
   @Override
   public String pathname() {
-    StringBuilder buffer = new StringBuilder();
-    SerializerHelper.serializePath(this, buffer);
-    return buffer.toString();
+    if (hasAnOpaquePath) {
+      return path.isEmpty() ? "" : path.get(0);
+    }
+    // the path holds its serialization
+    return path.toString();
   }
 
   /**
@@ -349,17 +510,15 @@ public class UrlImpl implements Url {
   @Override
   public Url pathname(String value) {
     Objects.requireNonNull(value);
+    pathChanged();
     // 1
     if (hasAnOpaquePath) {
       return this;
     }
     // 2
-    path.clear();
+    mutablePath().clear();
     // 3
-    try {
-      new UrlParser().basicParse(value, null, null, this, State.PATH_START);
-    } catch (Exception ignored) {
-    }
+    UrlParserImpl.threadLocal().tryBasicParse(value, null, null, this, State.PATH_START);
     return this;
   }
 
@@ -372,7 +531,7 @@ public class UrlImpl implements Url {
    */
   @Override
   public String port() {
-    if (port == null) {
+    if (port == NO_PORT) {
       return "";
     }
     return SerializerHelper.serializeInteger(port);
@@ -389,20 +548,18 @@ public class UrlImpl implements Url {
   @Override
   public Url port(String value) {
     Objects.requireNonNull(value);
+    hostChanged();
     // 1
     if (canNotHaveUsernamePasswordHost()) {
       return this;
     }
     // 2
     if (value.isEmpty()) {
-      port = null;
+      port = NO_PORT;
     }
     // 3
     else {
-      try {
-        new UrlParser().basicParse(value, null, null, this, State.PORT);
-      } catch (Exception ignored) {
-      }
+      UrlParserImpl.threadLocal().tryBasicParse(value, null, null, this, State.PORT);
     }
     return this;
   }
@@ -416,7 +573,7 @@ public class UrlImpl implements Url {
    *   <li>4) Remove all trailing U+0020 SPACE code points from url’s URL’s path.</li>
    * </ul>
    */
-  private void potentiallySkipTrailingSpaceFromAnOpaquePath() {
+  void potentiallySkipTrailingSpaceFromAnOpaquePath() {
     // 1
     if (!hasAnOpaquePath) {
       return;
@@ -429,21 +586,9 @@ public class UrlImpl implements Url {
     if (query != null) {
       return;
     }
-    // 4
-    ListIterator<String> segmentIterator = path.listIterator();
-    while (segmentIterator.hasNext()) {
-      String segment = segmentIterator.next();
-      if (!segment.isEmpty()) {
-        int lastValidIndex = segment.length();
-        while (lastValidIndex > 1 && segment.charAt(lastValidIndex - 1) == 0x20) {
-          lastValidIndex--;
-        }
-        if (lastValidIndex < segment.length()) {
-          String trimmedSegment = segment.substring(0, lastValidIndex);
-          segmentIterator.set(trimmedSegment);
-        }
-      }
-    }
+    // 4 an opaque path is made of a single segment
+    mutablePath().stripTrailingSpaces();
+    compactPath();
   }
 
   /**
@@ -461,10 +606,8 @@ public class UrlImpl implements Url {
   @Override
   public Url protocol(String value) {
     Objects.requireNonNull(value);
-    try {
-      new UrlParser().basicParse(value + ":", null, null, this, State.SCHEME_START);
-    } catch (Exception e) {
-    }
+    clearSerializations();
+    UrlParserImpl.threadLocal().tryBasicParse(value + ":", null, null, this, State.SCHEME_START);
     return this;
   }
 
@@ -510,10 +653,11 @@ public class UrlImpl implements Url {
   @Override
   public Url search(String value) {
     Objects.requireNonNull(value);
+    serializedHref = null;
     // 2
     if (value.isEmpty()) {
       query = null;
-      searchParams = null;
+      reinitializeSearchParams(null);
       potentiallySkipTrailingSpaceFromAnOpaquePath();
       return this;
     }
@@ -524,28 +668,33 @@ public class UrlImpl implements Url {
     // 4
     query = "";
     // 5
-    try {
-      new UrlParser().basicParse(value, null, null, this, State.QUERY);
-    } catch (Exception ignored) {
-    }
+    UrlParserImpl.threadLocal().tryBasicParse(value, null, null, this, State.QUERY);
+    // 6
+    reinitializeSearchParams(value);
     return this;
   }
 
+  /**
+   * Set the list of the search params to the result of parsing the specified value. The search
+   * params are the same object for the lifetime of this url; when they have not been created yet,
+   * there is nothing to do since they are created from the query on demand
+   */
+  private void reinitializeSearchParams(String value) {
+    if (searchParams != null) {
+      searchParams.reinitialize(value);
+    }
+  }
+
   @Override
   public UrlSearchParams searchParams() {
     if (searchParams == null) {
-      if (query != null) {
-        searchParams = new UrlSearchParamsImpl();
-        searchParams.init(query);
-      } else {
-        searchParams = new UrlSearchParamsImpl();
-      }
+      searchParams = new UrlSearchParamsImpl(this, query);
     }
     return searchParams;
   }
 
   void setOpaqueState() {
-    path.clear();
+    mutablePath().clear();
     hasAnOpaquePath = true;
   }
 
@@ -564,7 +713,7 @@ public class UrlImpl implements Url {
       return;
     }
     if (!path.isEmpty()) {
-      path.remove(path.size() - 1);
+      mutablePath().removeLast();
     }
   }
 
@@ -596,15 +745,16 @@ public class UrlImpl implements Url {
   @Override
   public Url username(String value) {
     Objects.requireNonNull(value);
+    serializedHref = null;
     if (canNotHaveUsernamePasswordHost()) {
       return this;
     }
-    username = UrlHelper.utf8PercentEncode(utf8Encoder(), value,
-        CodepointHelper::isInUserInfoPercentEncodeSet);
+    username = UrlHelper.utf8PercentEncode(value, CodepointHelper.USERINFO_PERCENT_ENCODE_SET);
     return this;
   }
 
   void usernamePasswordHostPort(UrlImpl url) {
+    hostChanged();
     this.username = url.username;
     this.password = url.password;
     this.host = url.host;
@@ -621,207 +771,44 @@ public class UrlImpl implements Url {
     return validationErrors != null ? validationErrors : Collections.emptyList();
   }
 
-  void validationError(ValidationError error) {
-    Objects.requireNonNull(error);
-    if (validationErrors == null) {
-      validationErrors = new ArrayList<>();
-    }
-    validationErrors.add(error);
+  @Override
+  public Url withHash(String value) {
+    return copy().hash(value);
   }
 
-  private CharsetEncoder utf8Encoder() {
-    if (utf8Encoder == null) {
-      utf8Encoder = StandardCharsets.UTF_8.newEncoder();
-    }
-    return utf8Encoder;
+  @Override
+  public Url withHost(String value) {
+    return copy().host(value);
   }
 
-  class UrlSearchParamsImpl implements UrlSearchParams {
-    private List<UrlSearchParam> parameters;
-
-    UrlSearchParamsImpl() {
-      parameters = new ArrayList<>();
-    }
-
-    void init(String init) {
-      Objects.requireNonNull(init);
-      parameters.clear();
-      List<List<String>> sequence = UrlHelper.parseFormUrlEncoded(init);
-      for (List<String> innerSequence : sequence) {
-        // 1
-        if (innerSequence.size() != 2) {
-          throw new RuntimeException("The list must contain 2 items");
-        }
-        // 2
-        append(innerSequence.get(0), innerSequence.get(1));
-      }
-    }
-
-    @Override
-    public UrlSearchParams append(String name, String value) {
-      Objects.requireNonNull(name);
-      parameters.add(new UrlSearchParam(name, value));
-      updateSteps();
-      return this;
-    }
-
-    @Override
-    public Collection<String> delete(String name) {
-      Objects.requireNonNull(name);
-      Collection<String> result = new ArrayList<>();
-      Iterator<UrlSearchParam> it = parameters.iterator();
-      while (it.hasNext()) {
-        UrlSearchParam param = it.next();
-        if (Objects.equals(name, param.name())) {
-          it.remove();
-          result.add(param.value());
-        }
-      }
-      updateSteps();
-      return result;
-    }
-
-    @Override
-    public boolean delete(String name, String value) {
-      Objects.requireNonNull(name);
-      boolean result = false;
-      Iterator<UrlSearchParam> it = parameters.iterator();
-      while (it.hasNext()) {
-        UrlSearchParam param = it.next();
-        if (Objects.equals(name, param.name()) && Objects.equals(value, param.value())) {
-          it.remove();
-          result = true;
-        }
-      }
-      if (result) {
-        updateSteps();
-      }
-      return result;
-    }
-
-    @Override
-    public UrlSearchParams entries(BiConsumer<String, String> consumer) {
-      Objects.requireNonNull(consumer);
-      parameters.forEach(param -> {
-        consumer.accept(param.name(), param.value());
-      });
-      return this;
-    }
-
-    @Override
-    public String get(String name) {
-      Objects.requireNonNull(name);
-      for (UrlSearchParam param : parameters) {
-        if (Objects.equals(name, param.name())) {
-          return param.value();
-        }
-      }
-      return null;
-    }
-
-    @Override
-    public Collection<String> getAll(String name) {
-      Objects.requireNonNull(name);
-      Collection<String> result = new ArrayList<>();
-      for (UrlSearchParam param : parameters) {
-        if (Objects.equals(name, param.name())) {
-          result.add(param.value());
-        }
-      }
-      return result;
-    }
-
-    @Override
-    public boolean has(String name) {
-      Objects.requireNonNull(name);
-      for (UrlSearchParam param : parameters) {
-        if (Objects.equals(name, param.name())) {
-          return true;
-        }
-      }
-      return false;
-    }
+  @Override
+  public Url withPathname(String value) {
+    return copy().pathname(value);
+  }
 
-    @Override
-    public boolean has(String name, String value) {
-      Objects.requireNonNull(name);
-      for (UrlSearchParam param : parameters) {
-        if (Objects.equals(name, param.name()) && Objects.equals(value, param.value())) {
-          return true;
-        }
-      }
-      return false;
-    }
-
-    @Override
-    public UrlSearchParams set(String name, String value) {
-      Objects.requireNonNull(name);
-      Objects.requireNonNull(value);
-      boolean hasFoundName = false;
-      Iterator<UrlSearchParam> paramIterator = parameters.iterator();
-      while (paramIterator.hasNext()) {
-        UrlSearchParam param = paramIterator.next();
-        if (Objects.equals(name, param.name())) {
-          if (hasFoundName) {
-            paramIterator.remove();
-          } else {
-            param.value(value);
-            hasFoundName = true;
-          }
-        }
-      }
-      if (hasFoundName) {
-        updateSteps();
-      } else {
-        append(name, value);
-      }
-      return this;
-    }
+  @Override
+  public Url withSearch(String value) {
+    return copy().search(value);
+  }
 
-    @Override
-    public UrlSearchParams sort() {
-      parameters.sort(Comparator.comparing(UrlSearchParam::name));
-      updateSteps();
-      return this;
+  void validationError(ValidationError error) {
+    Objects.requireNonNull(error);
+    if (validationErrors == null) {
+      validationErrors = new ArrayList<>();
     }
+    validationErrors.add(error);
+  }
 
-    @Override
-    public int size() {
-      return parameters.size();
+  /**
+   * Same as {@link #validationError(ValidationError)} but keep each kind of validation error once
+   */
+  void distinctValidationError(ValidationError error) {
+    Objects.requireNonNull(error);
+    if (validationErrors == null) {
+      validationErrors = EnumSet.noneOf(ValidationError.class);
     }
-
-    public String toString() {
-      StringBuilder buffer = new StringBuilder();
-      SerializerHelper.serializeFormUrlEncoded(this.parameters, utf8Encoder(), buffer);
-      return buffer.toString();
-    }
-
-    /**
-     * To update a URLSearchParams object query:
-     * <ul>
-     *   <li>1) If query’s URL object is null, then return.</li>
-     *   <li>2) Let serializedQuery be the serialization of query’s list.</li>
-     *   <li>3) If serializedQuery is the empty string, then set serializedQuery to null.</li>
-     *   <li>4) Set query’s URL object’s URL’s query to serializedQuery.</li>
-     *   <li>5) If serializedQuery is null, then potentially strip trailing spaces
-     *   from an opaque path with query’s URL object.</li>
-     *   <li></li>
-     *   <li></li>
-     * </ul>
-     */
-    void updateSteps() {
-      // 1 is not appropriate since we always have a URL object
-      // 2
-      StringBuilder buffer = new StringBuilder();
-      SerializerHelper.serializeFormUrlEncoded(this.parameters, utf8Encoder(), buffer);
-      // 3
-      String serializedQuery = buffer.length() > 0 ? buffer.toString() : null;
-      // 4
-      query = serializedQuery;
-      // 5
-      if (serializedQuery == null) {
-        UrlImpl.this.potentiallySkipTrailingSpaceFromAnOpaquePath();
-      }
+    if (!validationErrors.contains(error)) {
+      validationErrors.add(error);
     }
   }
 }
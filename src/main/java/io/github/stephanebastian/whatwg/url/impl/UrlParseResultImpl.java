@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
+import io.github.stephanebastian.whatwg.url.ValidationError;
+import java.util.Objects;
+
+public class UrlParseResultImpl implements UrlParseResult {
+  // failure results are immutable and only depend on the validation error, so a single instance
+  // per validation error is shared
+  private static final UrlParseResultImpl[] FAILURES;
+
+  static {
+    ValidationError[] validationErrors = ValidationError.values();
+    FAILURES = new UrlParseResultImpl[validationErrors.length];
+    for (ValidationError validationError : validationErrors) {
+      FAILURES[validationError.ordinal()] = new UrlParseResultImpl(null, validationError);
+    }
+  }
+
+  private final Url url;
+  private final ValidationError failure;
+
+  private UrlParseResultImpl(Url url, ValidationError failure) {
+    this.url = url;
+    this.failure = failure;
+  }
+
+  static UrlParseResult failure(ValidationError failure) {
+    return FAILURES[Objects.requireNonNull(failure).ordinal()];
+  }
+
+  static UrlParseResult success(Url url) {
+    return new UrlParseResultImpl(Objects.requireNonNull(url), null);
+  }
+
+  @Override
+  public ValidationError failure() {
+    return failure;
+  }
+
+  @Override
+  public boolean isSuccess() {
+    return url != null;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? url.href() : failure.name();
+  }
+
+  @Override
+  public Url url() {
+    return url;
+  }
+}
@@ -14,36 +14,107 @@
  */
 package io.github.stephanebastian.whatwg.url.impl;
 
+import io.github.stephanebastian.whatwg.url.HostPool;
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
+import io.github.stephanebastian.whatwg.url.UrlParser;
 import io.github.stephanebastian.whatwg.url.ValidationError;
+import io.github.stephanebastian.whatwg.url.ValidationErrorMode;
 import io.github.stephanebastian.whatwg.url.ValidationException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import java.util.function.IntPredicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * This is an implementation of the
  * <a href="https://url.spec.whatwg.org/#concept-basic-url-parser"></a>WhatWg basic URL parser</a>
+ * <br>
+ * A parser is reusable: the buffer and the codepoints are kept from one parse to the next, while
+ * references to the input, the url and the base url are released at the end of each parse. A
+ * parser is not thread-safe
  *
  * @author stephane
  */
-class UrlParser {
-  private final static Logger logger = Logger.getLogger(UrlParser.class.getName());
+public class UrlParserImpl implements UrlParser {
+  private final static Logger logger = Logger.getLogger(UrlParserImpl.class.getName());
+  // past this capacity, the buffer is not kept for the next parse so that a single very long
+  // input does not pin memory for the lifetime of the parser
+  private static final int MAX_RETAINED_BUFFER_CAPACITY = 8 * 1024;
+  private static final ThreadLocal<UrlParserImpl> threadLocalParser =
+      ThreadLocal.withInitial(UrlParserImpl::new);
   private UrlImpl url;
   private boolean atSignSeenFlag;
   private boolean insideBracketsFlag;
-  private StringBuilder buffer;
-  private Codepoints input;
+  private StringBuilder buffer = new StringBuilder();
+  private final Codepoints input = new Codepoints();
+  private boolean parsing;
   private boolean passwordTokenSeenFlag;
   private State state;
   private UrlImpl base;
   private Charset encoding;
   private CharsetEncoder encoder;
   private State stateOverride;
-  private CharsetEncoder utf8Encoder;
+  private final ValidationErrorMode validationErrorMode;
+  // null when the hosts are not pooled
+  private final HostPoolImpl hostPool;
+  private ValidationError lastValidationError;
+  private ValidationError failure;
+  // when only validating an input, no url is materialized: a url owned by the parser holds what
+  // the state machine needs and the state machine stops as soon as the input can no longer fail
+  private boolean validateOnly;
+  private UrlImpl validationUrl;
+
+  UrlParserImpl() {
+    this(ValidationErrorMode.ALL);
+  }
+
+  UrlParserImpl(ValidationErrorMode validationErrorMode) {
+    this(validationErrorMode, null);
+  }
+
+  UrlParserImpl(ValidationErrorMode validationErrorMode, HostPoolImpl hostPool) {
+    this.validationErrorMode = Objects.requireNonNull(validationErrorMode);
+    this.hostPool = hostPool;
+  }
+
+  public static UrlParser create() {
+    return new UrlParserImpl();
+  }
+
+  public static UrlParser create(ValidationErrorMode validationErrorMode) {
+    return new UrlParserImpl(validationErrorMode);
+  }
+
+  public static UrlParser create(ValidationErrorMode validationErrorMode, HostPool hostPool) {
+    return new UrlParserImpl(validationErrorMode,
+        (HostPoolImpl) Objects.requireNonNull(hostPool));
+  }
+
+  /**
+   * Return the parser confined to the current thread. If that parser is already parsing (a parse
+   * triggering another parse), a new parser is returned instead
+   *
+   * @return a parser that is ready to parse
+   */
+  static UrlParserImpl threadLocal() {
+    UrlParserImpl result = threadLocalParser.get();
+    return result.parsing ? new UrlParserImpl() : result;
+  }
+
+  /**
+   * Host-parse the buffer, resolving the host to the pooled one if hosts are pooled. The hosts of
+   * the inputs that are only validated are not pooled
+   *
+   * @return the host, or null on failure
+   */
+  private Host parseHost() {
+    Host result =
+        HostParser.tryParse(buffer().toString(), !url.isSpecial(), this::validationError);
+    return hostPool == null || validateOnly ? result : hostPool.intern(result);
+  }
 
   protected void appendToBuffer(int codePoint) {
     buffer.appendCodePoint(codePoint);
@@ -91,6 +162,12 @@ class UrlParser {
     if (input.codepointIs(CodepointHelper.CP_AT)) {
       // 1.1
       validationError(ValidationError.INVALID_CREDENTIALS);
+      // credentials never cause a failure, only the position of the last @ matters
+      if (validateOnly) {
+        atSignSeenFlag = true;
+        clearBuffer();
+        return StateReturnType.CONTINUE;
+      }
       // 1.2
       if (atSignSeenFlag) {
         prependToBuffer("%40");
@@ -98,24 +175,22 @@ class UrlParser {
       // 1.3
       atSignSeenFlag = true;
       // 1.4
-      buffer.codePoints().forEach(cp -> {
+      StringBuilder username = new StringBuilder(url.username);
+      StringBuilder password = new StringBuilder(url.password);
+      for (int i = 0; i < buffer.length();) {
+        int cp = buffer.codePointAt(i);
+        i += Character.charCount(cp);
         // 1.4.1
         if (cp == CodepointHelper.CP_COLON && !passwordTokenSeenFlag) {
           passwordTokenSeenFlag = true;
         } else {
-          // 1.4.2
-          String encodedCodePoint = UrlHelper.utf8PercentEncode(utf8Encoder(), cp,
-              CodepointHelper::isInUserInfoPercentEncodeSet);
-          // 1.4.3
-          if (passwordTokenSeenFlag) {
-            url.password += encodedCodePoint;
-          }
-          // 1.4.4
-          else {
-            url.username += encodedCodePoint;
-          }
+          // 1.4.2, 1.4.3, 1.4.4
+          UrlHelper.utf8PercentEncode(cp, CodepointHelper.USERINFO_PERCENT_ENCODE_SET,
+              passwordTokenSeenFlag ? password : username);
         }
-      });
+      }
+      url.username = username.toString();
+      url.password = password.toString();
       // 1.5
       clearBuffer();
     }
@@ -125,10 +200,11 @@ class UrlParser {
         || (url.isSpecial() && input.codepointIs(CodepointHelper.CP_BACKSLASH))) {
       // 2.1
       if (atSignSeenFlag && buffer().length() == 0) {
-        throw validationException(ValidationError.HOST_MISSING);
+        validationError(ValidationError.HOST_MISSING);
+        return StateReturnType.FAILURE;
       } else {
         // 2.2
-        input.decreasePointerBy((int) buffer().codePoints().count() + 1);
+        input.decreasePointerBy(buffer.codePointCount(0, buffer.length()) + 1);
         clearBuffer();
         state(State.HOST);
       }
@@ -171,30 +247,316 @@ class UrlParser {
    *     Otherwise, increase pointer by 1 and continue with the state machine.
    *     </li>
    *   </ul>
+   *
+   * @return the url, or null if the parse returns failure. In that case, the validation error that
+   *         caused the failure is available through {@link #failure()}
+   */
+  public UrlImpl tryBasicParse(String input, UrlImpl base, Charset encoding, UrlImpl url,
+      State stateOverride) {
+    Objects.requireNonNull(input);
+    if (logger.isLoggable(Level.FINER)) {
+      logger.log(Level.FINER, () -> "starting basicParse - input : " + input + " - base: " + base
+          + " - encoding: " + encoding + " - stateOverride: " + stateOverride);
+    }
+    if (parsing) {
+      throw new IllegalStateException("the parser is already parsing");
+    }
+    parsing = true;
+    failure = null;
+    lastValidationError = null;
+    try {
+      this.base = base;
+      // 1.1
+      this.url = url != null ? url : validateOnly ? validationUrl() : new UrlImpl();
+      // 1.2, 1.3, 2, 3 and 8 - the vast majority of inputs are made of ASCII characters only, in
+      // which case the state machine runs directly over the chars of the String
+      if (!asciiCodepoints(input, url == null)) {
+        scalarCodepoints(input, url == null);
+      }
+      // 4
+      this.stateOverride = stateOverride;
+      state(stateOverride != null ? stateOverride : State.SCHEME_START);
+      // 5
+      Charset outputEncoding =
+          encoding == null ? StandardCharsets.UTF_8 : InfraHelper.getOutputEncoding(encoding);
+      if (!outputEncoding.equals(this.encoding)) {
+        this.encoding = outputEncoding;
+        this.encoder = null;
+      }
+      // 6
+      if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+        buffer = new StringBuilder();
+      } else {
+        buffer.setLength(0);
+      }
+      // 7
+      this.atSignSeenFlag = false;
+      this.insideBracketsFlag = false;
+      this.passwordTokenSeenFlag = false;
+      // 9
+      if (!stateMachine()) {
+        failure = lastValidationError;
+        return null;
+      }
+      return this.url;
+    } finally {
+      if (this.url != null) {
+        this.url.compactPath();
+      }
+      reset();
+    }
+  }
+
+  /**
+   * Same as {@link #tryBasicParse(String, UrlImpl, Charset, UrlImpl, State)} but throw an
+   * exception on failure
+   *
+   * @return the url
+   * @exception ValidationException if the parse returns failure
    */
   public UrlImpl basicParse(String input, UrlImpl base, Charset encoding, UrlImpl url,
       State stateOverride) {
+    UrlImpl result = tryBasicParse(input, base, encoding, url, stateOverride);
+    if (result == null) {
+      throw new ValidationException(failure);
+    }
+    return result;
+  }
+
+  /**
+   * @return the validation error that caused the last parse to return failure, or null if it did
+   *         not
+   */
+  ValidationError failure() {
+    return failure;
+  }
+
+  @Override
+  public Url parse(String input) {
+    return parseRelativeTo(input, null);
+  }
+
+  @Override
+  public Url parse(String input, String baseUrl) {
     Objects.requireNonNull(input);
-    logger.log(Level.FINER, () -> "starting basicParse - input : " + input + " - base: " + base
-        + " - encoding: " + encoding + " - stateOverride: " + stateOverride);
+    UrlImpl parsedBaseUrl = null;
+    if (baseUrl != null) {
+      parsedBaseUrl = basicParse(baseUrl, null, null);
+    }
+    return parseRelativeTo(input, parsedBaseUrl);
+  }
+
+  @Override
+  public Url parseRelativeTo(String input, Url base) {
+    Objects.requireNonNull(input);
+    UrlImpl parsedBase = null;
+    if (base != null) {
+      parsedBase = tryParsedBase(base);
+      if (parsedBase == null) {
+        throw new ValidationException(failure);
+      }
+    }
+    return basicParse(input, parsedBase, null);
+  }
+
+  /**
+   * Return the base url as a UrlImpl. A frozen url only holds its href, which is parsed the first
+   * time it is used as a base url and kept by the frozen url. Any other implementation of Url is
+   * parsed again from its href
+   *
+   * @param base the base url
+   * @return the base url as a UrlImpl, or null if the parse of its href returns failure
+   */
+  private UrlImpl tryParsedBase(Url base) {
+    if (base instanceof UrlImpl) {
+      return (UrlImpl) base;
+    }
+    if (base instanceof ImmutableUrl) {
+      ImmutableUrl frozenBase = (ImmutableUrl) base;
+      UrlImpl result = frozenBase.parsedBase();
+      if (result == null) {
+        result = tryBasicParse(base.href(), null, null, null, null);
+        if (result != null) {
+          frozenBase.parsedBase(result);
+        }
+      }
+      return result;
+    }
+    return tryBasicParse(base.href(), null, null, null, null);
+  }
+
+  @Override
+  public boolean canParse(String input) {
+    return canParse(input, null);
+  }
+
+  @Override
+  public boolean canParse(String input, String baseUrl) {
+    Objects.requireNonNull(input);
+    UrlImpl parsedBaseUrl = null;
+    if (baseUrl != null) {
+      parsedBaseUrl = tryBasicParse(baseUrl, null, null, null, null);
+      if (parsedBaseUrl == null) {
+        return false;
+      }
+    }
+    return validate(input, parsedBaseUrl);
+  }
+
+  /**
+   * Run the basic URL parser on the input to find out whether it returns failure, without
+   * materializing a url. Userinfo is not percent-encoded, validation errors are not recorded and,
+   * as the path, query and fragment states never return failure, the state machine stops as soon
+   * as it reaches one of them. Host parsing still runs in full, since IPv4, IPv6 and domain to
+   * ASCII may all return failure
+   *
+   * @param input the input to validate
+   * @param base the base url, may be null
+   * @return true if the basic URL parser does not return failure, false otherwise
+   */
+  boolean validate(String input, UrlImpl base) {
+    if (parsing) {
+      throw new IllegalStateException("the parser is already parsing");
+    }
+    validateOnly = true;
+    try {
+      return tryBasicParse(input, base, null, null, null) != null;
+    } finally {
+      validateOnly = false;
+      validationUrl.reset();
+    }
+  }
+
+  private UrlImpl validationUrl() {
+    if (validationUrl == null) {
+      validationUrl = new UrlImpl();
+    }
+    return validationUrl;
+  }
+
+  @Override
+  public UrlParseResult tryParse(String input) {
+    return tryParseRelativeTo(input, null);
+  }
+
+  @Override
+  public UrlParseResult tryParse(String input, String baseUrl) {
+    Objects.requireNonNull(input);
+    UrlImpl parsedBaseUrl = null;
+    if (baseUrl != null) {
+      parsedBaseUrl = tryBasicParse(baseUrl, null, null, null, null);
+      if (parsedBaseUrl == null) {
+        return UrlParseResultImpl.failure(failure);
+      }
+    }
+    return tryParseRelativeTo(input, parsedBaseUrl);
+  }
+
+  @Override
+  public UrlParseResult tryParseRelativeTo(String input, Url base) {
+    Objects.requireNonNull(input);
+    UrlImpl parsedBase = null;
+    if (base != null) {
+      parsedBase = tryParsedBase(base);
+      if (parsedBase == null) {
+        return UrlParseResultImpl.failure(failure);
+      }
+    }
+    UrlImpl result = tryBasicParse(input, parsedBase, null, null, null);
+    return result == null ? UrlParseResultImpl.failure(failure)
+        : UrlParseResultImpl.success(result);
+  }
+
+  /**
+   * Release references to the last parse, while keeping what can be reused by the next one
+   */
+  private void reset() {
+    this.url = null;
+    this.base = null;
+    this.stateOverride = null;
+    this.input.clear();
+    this.parsing = false;
+  }
+
+  /**
+   * Run steps 1.2, 1.3, 2 and 3 of the basic URL parser on an input made of ASCII characters only.
+   * Leading and trailing C0 control or space are skipped by narrowing the range of chars, and a new
+   * String is only created when the input contains ASCII tab or newline
+   *
+   * @param input the input
+   * @param trim whether leading and trailing C0 control or space must be removed
+   * @return true if the input is made of ASCII characters only and the codepoints have been reset
+   *         to its chars, false otherwise
+   */
+  private boolean asciiCodepoints(String input, boolean trim) {
+    boolean hasAsciiTabOrNewline = false;
+    int length = input.length();
+    for (int i = 0; i < length; i++) {
+      char c = input.charAt(i);
+      if (c >= 0x80) {
+        return false;
+      }
+      if (InfraHelper.isAsciiTabOrNewLine(c)) {
+        hasAsciiTabOrNewline = true;
+      }
+    }
+    int start = 0;
+    int end = length;
+    // 1.2
+    if (trim) {
+      while (start < end && InfraHelper.isC0ControlOrSpace(input.charAt(start))) {
+        start++;
+      }
+      while (end > start && InfraHelper.isC0ControlOrSpace(input.charAt(end - 1))) {
+        end--;
+      }
+      if (start > 0 || end < length) {
+        validationError(ValidationError.INVALID_URL_UNIT);
+        // 1.3 - the range already excludes them. As tab and newline are C0 controls, check
+        // whether some remain within the range
+        if (hasAsciiTabOrNewline) {
+          hasAsciiTabOrNewline = false;
+          for (int i = start; i < end && !hasAsciiTabOrNewline; i++) {
+            hasAsciiTabOrNewline = InfraHelper.isAsciiTabOrNewLine(input.charAt(i));
+          }
+        }
+      }
+    }
+    // 2
+    if (hasAsciiTabOrNewline) {
+      validationError(ValidationError.INVALID_URL_UNIT);
+      // 3
+      StringBuilder result = new StringBuilder(end - start);
+      for (int i = start; i < end; i++) {
+        char c = input.charAt(i);
+        if (!InfraHelper.isAsciiTabOrNewLine(c)) {
+          result.append(c);
+        }
+      }
+      this.input.reset(result.toString(), 0, result.length());
+    } else {
+      this.input.reset(input, start, end - start);
+    }
+    return true;
+  }
+
+  /**
+   * Run steps 1.2, 1.3, 2 and 3 of the basic URL parser on any input
+   *
+   * @param input the input
+   * @param trim whether leading and trailing C0 control or space must be removed
+   */
+  private void scalarCodepoints(String input, boolean trim) {
     // easier to deal with the codepoint array than using String
     int[] codepoints = input.codePoints().toArray();
     // note that the spec indicates that basicParse takes a scalar value String (basically where
     // surrogates have been replaced)
     codepoints = InfraHelper.toScalarCodepoints(codepoints);
-    this.base = base;
-    // 1
-    if (url == null) {
-      // 1.1
-      this.url = new UrlImpl();
-      // 1.2
-      if (UrlHelper.hasLeadingOrTrailingC0ControlOrSpace(codepoints)) {
-        validationError(ValidationError.INVALID_URL_UNIT);
-        // 1.3
-        codepoints = UrlHelper.removeLeadingOrTrailingC0ControlOrSpace(codepoints);
-      }
-    } else {
-      this.url = url;
+    // 1.2
+    if (trim && UrlHelper.hasLeadingOrTrailingC0ControlOrSpace(codepoints)) {
+      validationError(ValidationError.INVALID_URL_UNIT);
+      // 1.3
+      codepoints = UrlHelper.removeLeadingOrTrailingC0ControlOrSpace(codepoints);
     }
     // 2
     if (UrlHelper.hasAsciiTabOrNewline(codepoints)) {
@@ -202,23 +564,7 @@ class UrlParser {
       // 3
       codepoints = UrlHelper.removeAsciiTabAndNewline(codepoints);
     }
-    // 4
-    this.stateOverride = stateOverride;
-    state(stateOverride != null ? stateOverride : State.SCHEME_START);
-    // 5
-    this.encoding =
-        encoding == null ? StandardCharsets.UTF_8 : InfraHelper.getOutputEncoding(encoding);
-    // 6
-    this.buffer = new StringBuilder(codepoints.length);
-    // 7
-    this.atSignSeenFlag = false;
-    this.insideBracketsFlag = false;
-    this.passwordTokenSeenFlag = false;
-    // 8
-    this.input = new Codepoints(codepoints);
-    // 9
-    stateMachine();
-    return this.url;
+    this.input.reset(codepoints);
   }
 
   /**
@@ -241,10 +587,13 @@ class UrlParser {
     buffer.setLength(0);
   }
 
+  /**
+   * @return the encoder of the current (non UTF-8) encoding. UTF-8 is encoded inline and does not
+   *         need an encoder
+   */
   private CharsetEncoder encoder() {
     if (encoder == null) {
-      encoder = encoding.equals(StandardCharsets.UTF_8) ? utf8Encoder()
-          : EncodingHelper.getEncoder(encoding);
+      encoder = EncodingHelper.getEncoder(encoding);
     }
     return encoder;
   }
@@ -304,20 +653,18 @@ class UrlParser {
       }
       // 1.3
       else {
-        try {
-          // 1.3.1
-          Host host =
-              HostParser.parse(buffer().toString(), !url.isSpecial(), this::validationError);
-          // 1.3.3
-          if (host instanceof Domain && "localhost".equals(((Domain) host).host())) {
-            host = EmptyHost.create();
-          }
-          // 1.3.4
-          url.host = host;
-        } catch (ValidationException e) {
-          // 1.3.2
-          throw validationException(e.validationError());
+        // 1.3.1
+        Host host = parseHost();
+        // 1.3.2
+        if (host == null) {
+          return StateReturnType.FAILURE;
+        }
+        // 1.3.3
+        if (host instanceof Domain && "localhost".equals(host.domain())) {
+          host = EmptyHost.create();
         }
+        // 1.3.4
+        url.host = host;
         // 1.3.5
         if (stateOverride != null) {
           return StateReturnType.RETURN;
@@ -378,7 +725,7 @@ class UrlParser {
         // 2.1.2
         if (!UrlHelper.startsWithWindowsDriveLetter(input) && !base.path.isEmpty()
             && UrlHelper.isNormalizedWindowsDriveLetter(base.path.get(0))) {
-          url.path.add(base.path.get(0));
+          url.mutablePath().add(base.path.get(0));
         }
       }
       // 2.2
@@ -470,7 +817,7 @@ class UrlParser {
           // 4.4.3.1
           validationError(ValidationError.FILE_INVALID_WINDOWS_DRIVE_LETTER);
           // 4.4.3.2
-          url.path.clear();
+          url.mutablePath().clear();
         }
         // 4.4.4
         state(State.PATH);
@@ -504,19 +851,22 @@ class UrlParser {
     // 1
     if (input.codepointIsNot(CodepointHelper.CP_EOF)) {
       // 1.1
-      if (input.codepointIsNot(CodepointHelper::isUrlCodepoint)
+      if (!CodepointHelper.isUrlCodepoint(input.codepoint())
           && input.codepointIsNot(CodepointHelper.CP_PERCENT)) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
       // 1.2
       if (input.codepointIs(CodepointHelper.CP_PERCENT)
-          && !input.remainingMatch(2, (idx, cp) -> InfraHelper.isAsciiHexDigit(cp))) {
+          && !input.remainingStartsWithTwoAsciiHexDigits()) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
-      // 1.3
-      String utf8PercentEncode = UrlHelper.utf8PercentEncode(utf8Encoder(), input.codepoint(),
-          CodepointHelper::isInFragmentPercentEncodeSet);
-      url.appendFragment(utf8PercentEncode);
+      // 1.3 - the fragment is accumulated in the buffer and appended to the url's fragment once
+      // the end of the input is reached
+      UrlHelper.utf8PercentEncode(input.codepoint(), CodepointHelper.FRAGMENT_PERCENT_ENCODE_SET,
+          buffer);
+    } else {
+      url.appendFragment(buffer.toString());
+      clearBuffer();
     }
     return StateReturnType.CONTINUE;
   }
@@ -568,19 +918,21 @@ class UrlParser {
     else if (input.codepointIs(CodepointHelper.CP_COLON) && !insideBracketsFlag) {
       // 2.1
       if (buffer().length() == 0) {
-        throw validationException(ValidationError.HOST_MISSING);
+        validationError(ValidationError.HOST_MISSING);
+        return StateReturnType.FAILURE;
       }
       // 2.2
       if (State.HOSTNAME.equals(stateOverride)) {
         return StateReturnType.RETURN;
       }
-      try {
-        // 2.3, 2.5
-        url.host = HostParser.parse(buffer().toString(), !url.isSpecial(), this::validationError);
-      } catch (ValidationException e) {
-        // 2.4
-        throw validationException(e.validationError());
+      // 2.3
+      Host host = parseHost();
+      // 2.4
+      if (host == null) {
+        return StateReturnType.FAILURE;
       }
+      // 2.5
+      url.host = host;
       clearBuffer();
       state(State.PORT);
     }
@@ -591,20 +943,22 @@ class UrlParser {
       input.decreasePointerByOne();
       // 3.1
       if (url.isSpecial() && buffer().length() == 0) {
-        throw validationException(ValidationError.HOST_MISSING);
+        validationError(ValidationError.HOST_MISSING);
+        return StateReturnType.FAILURE;
       }
       // 3.2
       else if (stateOverride != null && buffer().length() == 0
-          && (url.includeCredentials() || url.port != null)) {
+          && (url.includeCredentials() || url.port != UrlImpl.NO_PORT)) {
         return StateReturnType.RETURN;
       }
-      try {
-        // 3.3, 3.5
-        url.host = HostParser.parse(buffer().toString(), !url.isSpecial(), this::validationError);
-      } catch (ValidationException e) {
-        // 3.4
-        throw validationException(e.validationError());
+      // 3.3
+      Host host = parseHost();
+      // 3.4
+      if (host == null) {
+        return StateReturnType.FAILURE;
       }
+      // 3.5
+      url.host = host;
       clearBuffer();
       state(State.PATH_START);
       // 3.6
@@ -645,6 +999,9 @@ class UrlParser {
   }
 
   protected void logInfo() {
+    if (!logger.isLoggable(Level.FINER)) {
+      return;
+    }
     logger.log(Level.FINER,
         () -> "codePoint: " + input.codepoint() + " - char: "
             + (input.isEof() ? "EOF" : Integer.toString(input.codepoint())) + " - index: "
@@ -666,7 +1023,8 @@ class UrlParser {
   private StateReturnType noSchemeState() {
     // 1
     if (base == null || (base.hasAnOpaquePath() && input.codepointIsNot(CodepointHelper.CP_HASH))) {
-      throw validationException(ValidationError.MISSING_SCHEME_NON_RELATIVE_URL);
+      validationError(ValidationError.MISSING_SCHEME_NON_RELATIVE_URL);
+      return StateReturnType.FAILURE;
     }
     // 2
     else if (base.hasAnOpaquePath() && input.codepointIs(CodepointHelper.CP_HASH)) {
@@ -711,40 +1069,50 @@ class UrlParser {
   private StateReturnType opaquePathState() {
     // 1
     if (input.codepointIs(CodepointHelper.CP_QUESTION_MARK)) {
+      appendBufferToOpaquePath();
       url.query = "";
       state(State.QUERY);
     }
     // 2
     else if (input.codepointIs(CodepointHelper.CP_HASH)) {
+      appendBufferToOpaquePath();
       url.fragment = "";
       state(State.FRAGMENT);
     }
     // 3
     else {
       // 3.1
-      if (!input.isEof() && input.codepointIsNot(CodepointHelper::isUrlCodepoint)
+      if (!input.isEof() && !CodepointHelper.isUrlCodepoint(input.codepoint())
           && input.codepointIsNot(CodepointHelper.CP_PERCENT)) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
       // 3.2
       if (input.codepointIs(CodepointHelper.CP_PERCENT)
-          && input.remainingMatch(2, (pos, cp) -> InfraHelper.isAsciiHexDigit(cp))) {
+          && input.remainingStartsWithTwoAsciiHexDigits()) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
-      // 3.3
+      // 3.3 - the path is accumulated in the buffer and appended to the url's path once the end
+      // of the path is reached
       if (!input.isEof()) {
-        String utf8PercentEncoded = UrlHelper.utf8PercentEncode(utf8Encoder(), input.codepoint(),
-            CodepointHelper::isInC0ControlPercentEncodeSet);
-        if (url.path.isEmpty()) {
-          url.path.add(utf8PercentEncoded);
-        } else {
-          url.path.set(0, url.path.get(0) + utf8PercentEncoded);
-        }
+        UrlHelper.utf8PercentEncode(input.codepoint(),
+            CodepointHelper.C0_CONTROL_PERCENT_ENCODE_SET, buffer);
+      } else {
+        appendBufferToOpaquePath();
       }
     }
     return StateReturnType.CONTINUE;
   }
 
+  /**
+   * Append the content of the buffer to the url's opaque path, then clear the buffer
+   */
+  private void appendBufferToOpaquePath() {
+    if (buffer.length() > 0) {
+      url.mutablePath().appendToLastSegment(buffer);
+      clearBuffer();
+    }
+  }
+
   /**
    *   <ul>
    *     <li>1) If c is U+002F (/), then set state to authority state.</li>
@@ -816,7 +1184,7 @@ class UrlParser {
         input.decreasePointerByOne();
       }
     } else if (stateOverride != null && url.host == null) {
-      url.path.add("");
+      url.mutablePath().add("");
     }
     return StateReturnType.CONTINUE;
   }
@@ -892,14 +1260,14 @@ class UrlParser {
         // 1.2.2
         if (!(input.codepointIs(CodepointHelper.CP_SLASH)
             || (url.isSpecial() && input.codepointIs(CodepointHelper.CP_BACKSLASH)))) {
-          url.path.add("");
+          url.mutablePath().add("");
         }
       }
       // 1.3
       else if (UrlHelper.isSingleDotPathSegment(buffer())
           && (!input.codepointIs(CodepointHelper.CP_SLASH)
               && !(url.isSpecial() && input.codepointIs(CodepointHelper.CP_BACKSLASH)))) {
-        url.path.add("");
+        url.mutablePath().add("");
       }
       // 1.4
       else if (!UrlHelper.isSingleDotPathSegment(buffer())) {
@@ -911,7 +1279,7 @@ class UrlParser {
           }
         }
         // 1.4.2
-        url.path.add(buffer().toString());
+        url.mutablePath().add(buffer());
       }
       // 1.5
       clearBuffer();
@@ -929,18 +1297,18 @@ class UrlParser {
     // 2
     else {
       // 2.1
-      if (input.codepointIsNot(CodepointHelper::isUrlCodepoint)
+      if (!CodepointHelper.isUrlCodepoint(input.codepoint())
           && input.codepointIsNot(CodepointHelper.CP_PERCENT)) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
       // 2.2
       if (input.codepointIs(CodepointHelper.CP_PERCENT)
-          && !input.remainingMatch(2, (idx, cp) -> InfraHelper.isAsciiHexDigit(cp))) {
+          && !input.remainingStartsWithTwoAsciiHexDigits()) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
       // 2.3
-      buffer.append(UrlHelper.utf8PercentEncode(utf8Encoder(), input.codepoint(),
-          CodepointHelper::isInPathPercentEncodeSet));
+      UrlHelper.utf8PercentEncode(input.codepoint(), CodepointHelper.PATH_PERCENT_ENCODE_SET,
+          buffer);
     }
     return StateReturnType.CONTINUE;
   }
@@ -981,16 +1349,20 @@ class UrlParser {
         || stateOverride != null) {
       // 2.1
       if (buffer().length() > 0) {
-        // 2.1.1
-        Integer port = Integer.valueOf(buffer().toString(), 10);
-        // 2.1.2
+        // 2.1.1, 2.1.2 - digits are accumulated until the port goes out of range, which also
+        // prevents long inputs from overflowing
+        int port = 0;
+        for (int i = 0; i < buffer.length() && port <= 65535; i++) {
+          port = port * 10 + (buffer.charAt(i) - '0');
+        }
         if (port > 65535) {
-          throw validationException(ValidationError.PORT_OUT_OF_RANGE);
+          validationError(ValidationError.PORT_OUT_OF_RANGE);
+          return StateReturnType.FAILURE;
         }
         // 2.1.3
         Integer defaultPort = UrlHelper.getDefaultSchemePort(url.scheme);
-        if (port.equals(defaultPort)) {
-          url.port = null;
+        if (defaultPort != null && port == defaultPort) {
+          url.port = UrlImpl.NO_PORT;
         } else {
           url.port = port;
         }
@@ -1007,7 +1379,8 @@ class UrlParser {
     }
     // 3
     else {
-      throw validationException(ValidationError.PORT_INVALID);
+      validationError(ValidationError.PORT_INVALID);
+      return StateReturnType.FAILURE;
     }
     return StateReturnType.CONTINUE;
   }
@@ -1065,12 +1438,13 @@ class UrlParser {
     // 2
     if ((stateOverride == null && input.codepointIs(CodepointHelper.CP_HASH)) || input.isEof()) {
       // 2.1, 2.2
-      IntPredicate queryPercentEncodeSet =
-          url.isSpecial() ? CodepointHelper::isSpecialQueryPercentEncodeSet
-              : CodepointHelper::isQueryPercentEncodeSet;
+      int queryPercentEncodeSet =
+          url.isSpecial() ? CodepointHelper.SPECIAL_QUERY_PERCENT_ENCODE_SET
+              : CodepointHelper.QUERY_PERCENT_ENCODE_SET;
       // 2.2
-      String percentEncodeAfterEncoding =
-          UrlHelper.percentEncodeAfterEncoding(encoder(), buffer, queryPercentEncodeSet, false);
+      String percentEncodeAfterEncoding = StandardCharsets.UTF_8.equals(encoding)
+          ? UrlHelper.utf8PercentEncode(buffer, queryPercentEncodeSet)
+          : UrlHelper.percentEncodeAfterEncoding(encoder(), buffer, queryPercentEncodeSet, false);
       url.appendQuery(percentEncodeAfterEncoding);
       // 2.3
       clearBuffer();
@@ -1083,13 +1457,13 @@ class UrlParser {
     // 3
     else if (input.codepointIsNot(CodepointHelper.CP_EOF)) {
       // 3.1
-      if (input.codepointIsNot(CodepointHelper::isUrlCodepoint)
+      if (!CodepointHelper.isUrlCodepoint(input.codepoint())
           && input.codepointIsNot(CodepointHelper.CP_PERCENT)) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
       // 3.2
       if (input.codepointIs(CodepointHelper.CP_PERCENT)
-          && !input.remainingMatch(2, (idx, cp) -> InfraHelper.isAsciiHexDigit(cp))) {
+          && !input.remainingStartsWithTwoAsciiHexDigits()) {
         validationError(ValidationError.INVALID_URL_UNIT);
       }
       // 3.3
@@ -1220,7 +1594,8 @@ class UrlParser {
       return StateReturnType.CONTINUE;
     }
     // 3
-    throw validationException(ValidationError.INVALID_URL_UNIT);
+    validationError(ValidationError.INVALID_URL_UNIT);
+    return StateReturnType.FAILURE;
   }
 
   /**
@@ -1298,7 +1673,7 @@ class UrlParser {
           return StateReturnType.RETURN;
         }
         // 2.1.3
-        if (url.includeCredentials() || (url.port != null && buffer().toString().equals("file"))) {
+        if (url.includeCredentials() || (url.port != UrlImpl.NO_PORT && buffer().toString().equals("file"))) {
           return StateReturnType.RETURN;
         }
         // 2.1.4
@@ -1307,13 +1682,13 @@ class UrlParser {
         }
       }
       // 2.2
-      url.scheme = buffer().toString();
+      url.scheme = UrlHelper.internScheme(buffer());
       // 2.3
       if (stateOverride != null) {
         // 2.3.1
         Integer defaultPort = UrlHelper.getDefaultSchemePort(url.scheme);
-        if (defaultPort != null && defaultPort.equals(url.port)) {
-          url.port = null;
+        if (defaultPort != null && defaultPort == url.port) {
+          url.port = UrlImpl.NO_PORT;
         }
         // 2.3.2
         return StateReturnType.RETURN;
@@ -1322,7 +1697,7 @@ class UrlParser {
       clearBuffer();
       // 2.5
       if ("file".equals(url.scheme)) {
-        if (!input.remainingMatch(2, (idx, cp) -> cp == CodepointHelper.CP_SLASH)) {
+        if (!input.remainingStartsWith(CodepointHelper.CP_SLASH, CodepointHelper.CP_SLASH)) {
           validationError(ValidationError.SPECIAL_SCHEME_MISSING_FOLLOWING_SOLIDUS);
         }
         state(State.FILE);
@@ -1336,7 +1711,7 @@ class UrlParser {
         state(State.SPECIAL_AUTHORITY_SLASHES);
       }
       // 2.8
-      else if (input.remainingMatch(1, (idx, cp) -> cp == CodepointHelper.CP_SLASH)) {
+      else if (input.remainingStartsWith(CodepointHelper.CP_SLASH)) {
         state(State.PATH_OR_AUTHORITY);
         input.increasePointerByOne();
       }
@@ -1355,7 +1730,8 @@ class UrlParser {
       return StateReturnType.CONTINUE;
     }
     // 4
-    throw validationException(ValidationError.INVALID_URL_UNIT);
+    validationError(ValidationError.INVALID_URL_UNIT);
+    return StateReturnType.FAILURE;
   }
 
   /**
@@ -1384,7 +1760,7 @@ class UrlParser {
   private StateReturnType specialAuthoritySlashesState() {
     // 1
     if (input.codepointIs(CodepointHelper.CP_SLASH)
-        && input.remainingMatch(1, (idx, cp) -> cp == CodepointHelper.CP_SLASH)) {
+        && input.remainingStartsWith(CodepointHelper.CP_SLASH)) {
       state(State.SPECIAL_AUTHORITY_IGNORE_SLASHES);
       input.increasePointerByOne();
     }
@@ -1408,7 +1784,7 @@ class UrlParser {
    */
   private StateReturnType specialRelativeOrAuthorityState() {
     if (input.codepointIs(CodepointHelper.CP_SLASH)
-        && input.remainingMatch(1, (idx, cp) -> cp == CodepointHelper.CP_SLASH)) {
+        && input.remainingStartsWith(CodepointHelper.CP_SLASH)) {
       state(State.SPECIAL_AUTHORITY_IGNORE_SLASHES);
       input.increasePointerByOne();
     } else {
@@ -1427,9 +1803,16 @@ class UrlParser {
     this.state = Objects.requireNonNull(state);
   }
 
-  protected void stateMachine() {
-    logger.log(Level.FINER, () -> "Starting state machine - position: " + input.pointer()
-        + " - base: " + base + " - state override: " + stateOverride);
+  /**
+   * Run the state machine
+   *
+   * @return false if the state machine returned failure, true otherwise
+   */
+  protected boolean stateMachine() {
+    if (logger.isLoggable(Level.FINER)) {
+      logger.log(Level.FINER, () -> "Starting state machine - position: " + input.pointer()
+          + " - base: " + base + " - state override: " + stateOverride);
+    }
     while (true) {
       logInfo();
       StateReturnType returnValue = null;
@@ -1498,34 +1881,56 @@ class UrlParser {
           returnValue = fragmentState();
           break;
       }
+      if (returnValue == StateReturnType.FAILURE) {
+        return false;
+      }
       if (returnValue == StateReturnType.RETURN) {
-        return;
+        return true;
+      }
+      if (validateOnly && cannotFail(state())) {
+        return true;
       }
       if (input.codepointIs(CodepointHelper.CP_EOF)) {
-        return;
+        return true;
       }
       input.increasePointerByOne();
     }
   }
 
-  CharsetEncoder utf8Encoder() {
-    if (utf8Encoder == null) {
-      utf8Encoder = StandardCharsets.UTF_8.newEncoder();
+  /**
+   * @return whether the state, and all the states that may follow it, never return failure
+   */
+  private static boolean cannotFail(State state) {
+    switch (state) {
+      case PATH_START:
+      case PATH:
+      case OPAQUE_PATH:
+      case QUERY:
+      case FRAGMENT:
+        return true;
+      default:
+        return false;
     }
-    return utf8Encoder;
   }
 
   void validationError(ValidationError error) {
-    url.validationError(error);
-  }
-
-  ValidationException validationException(ValidationError error) {
-    validationError(error);
-    return new ValidationException(error);
+    if (!validateOnly) {
+      switch (validationErrorMode) {
+        case ALL:
+          url.validationError(error);
+          break;
+        case DISTINCT:
+          url.distinctValidationError(error);
+          break;
+        case NONE:
+          break;
+      }
+    }
+    lastValidationError = error;
   }
 
   private enum StateReturnType {
-    RETURN, CONTINUE,
+    RETURN, CONTINUE, FAILURE,
   }
 
   public enum State {
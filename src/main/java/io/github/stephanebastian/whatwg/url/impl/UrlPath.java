@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A compact url path.<br>
+ * <br>
+ * The segments are stored in a single string, each one preceded by U+002F (/), along with the end
+ * offset of each segment but the last one, which ends with the string. The serialization of a path
+ * which is not opaque is therefore the string itself, and adding or removing a segment does not
+ * allocate a string per segment.<br>
+ * While a path is modified, the segments are held in a StringBuilder. The parser calls
+ * {@link #compact()} once it is done, which turns the segments back into a string and trims the
+ * offsets, so that reading a compacted path never modifies it
+ */
+final class UrlPath {
+  // the empty path, shared by all the urls until they add a segment
+  static final UrlPath EMPTY = new UrlPath();
+  // the path made of a single empty segment, the most common one by far
+  static final UrlPath ROOT = new UrlPath("/", 1);
+  private static final int[] NO_ENDS = new int[0];
+  // either a String, or a StringBuilder while the path is modified
+  private CharSequence segments;
+  private int[] ends;
+  private int size;
+
+  UrlPath() {
+    this("", 0);
+  }
+
+  private UrlPath(String segments, int size) {
+    this.segments = segments;
+    this.ends = NO_ENDS;
+    this.size = size;
+  }
+
+  UrlPath(UrlPath path) {
+    Objects.requireNonNull(path);
+    this.segments = path.segments.toString();
+    this.ends = path.size > 1 ? Arrays.copyOf(path.ends, path.size - 1) : NO_ENDS;
+    this.size = path.size;
+  }
+
+  /**
+   * Append the specified segment to this path
+   *
+   * @param segment the segment to append
+   */
+  void add(CharSequence segment) {
+    Objects.requireNonNull(segment);
+    StringBuilder builder = segmentsBuilder();
+    if (size > 0) {
+      // the last segment is about to be followed by another one, its end must be recorded
+      if (size - 1 == ends.length) {
+        ends = Arrays.copyOf(ends, Math.max(4, ends.length * 2));
+      }
+      ends[size - 1] = builder.length();
+    }
+    builder.append('/').append(segment);
+    size++;
+  }
+
+  /**
+   * Append the specified value to the last segment of this path, or add a segment if this path is
+   * empty. This is how an opaque path, made of a single segment, grows
+   *
+   * @param value the value to append
+   */
+  void appendToLastSegment(CharSequence value) {
+    Objects.requireNonNull(value);
+    if (size == 0) {
+      add(value);
+    } else {
+      segmentsBuilder().append(value);
+    }
+  }
+
+  /**
+   * Append the segments of this path, each one preceded by U+002F (/), to the output
+   *
+   * @param output the output buffer
+   */
+  void appendTo(StringBuilder output) {
+    output.append(segments);
+  }
+
+  /**
+   * Append the specified segment to the output
+   *
+   * @param index the index of the segment
+   * @param output the output buffer
+   */
+  void appendSegmentTo(int index, StringBuilder output) {
+    output.append(segments, start(index), end(index));
+  }
+
+  void clear() {
+    if (segments instanceof StringBuilder) {
+      ((StringBuilder) segments).setLength(0);
+    } else {
+      segments = "";
+    }
+    size = 0;
+  }
+
+  /**
+   * Turn the segments back into a string and trim the offsets
+   *
+   * @return this path, or a shared instance equal to this path
+   */
+  UrlPath compact() {
+    if (size == 0) {
+      return EMPTY;
+    }
+    if (size == 1 && segments.length() == 1) {
+      return ROOT;
+    }
+    if (segments instanceof StringBuilder) {
+      segments = segments.toString();
+    }
+    if (ends.length != size - 1) {
+      ends = size > 1 ? Arrays.copyOf(ends, size - 1) : NO_ENDS;
+    }
+    return this;
+  }
+
+  private int end(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    return index == size - 1 ? segments.length() : ends[index];
+  }
+
+  String get(int index) {
+    return segments.subSequence(start(index), end(index)).toString();
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean isSegmentEmpty(int index) {
+    return start(index) == end(index);
+  }
+
+  void removeLast() {
+    if (size == 0) {
+      throw new IndexOutOfBoundsException("the path is empty");
+    }
+    size--;
+    segmentsBuilder().setLength(size == 0 ? 0 : ends[size - 1]);
+  }
+
+  private StringBuilder segmentsBuilder() {
+    if (!(segments instanceof StringBuilder)) {
+      segments = new StringBuilder(segments.length() + 16).append(segments);
+    }
+    return (StringBuilder) segments;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int start(int index) {
+    return (index == 0 ? 0 : end(index - 1)) + 1;
+  }
+
+  /**
+   * Remove the trailing U+0020 SPACE code points of the last segment, the first code point of the
+   * segment is always kept. This is used to strip the trailing spaces of an opaque path, made of a
+   * single segment
+   */
+  void stripTrailingSpaces() {
+    if (size == 0) {
+      return;
+    }
+    int start = start(size - 1);
+    int end = segments.length();
+    int lastValidIndex = end;
+    while (lastValidIndex > start + 1 && segments.charAt(lastValidIndex - 1) == 0x20) {
+      lastValidIndex--;
+    }
+    if (lastValidIndex < end) {
+      segmentsBuilder().setLength(lastValidIndex);
+    }
+  }
+
+  /**
+   * @return the segments of this path, each one preceded by U+002F (/)
+   */
+  @Override
+  public String toString() {
+    return segments.toString();
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.UrlSearchParams;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * The search params of a url. They are created on demand, from the query of the url, and update
+ * the query of the url when they are modified
+ */
+class UrlSearchParamsImpl implements UrlSearchParams {
+  private final UrlImpl url;
+  private final List<UrlSearchParam> parameters;
+
+  UrlSearchParamsImpl(UrlImpl url, String query) {
+    this.url = Objects.requireNonNull(url);
+    this.parameters = new ArrayList<>();
+    if (query != null) {
+      init(query);
+    }
+  }
+
+  private void init(String init) {
+    Objects.requireNonNull(init);
+    List<List<String>> sequence = UrlHelper.parseFormUrlEncoded(init);
+    for (List<String> innerSequence : sequence) {
+      // 1
+      if (innerSequence.size() != 2) {
+        throw new RuntimeException("The list must contain 2 items");
+      }
+      // 2 the pair is appended to the list only, the update steps must not run since the list
+      // comes from the query, running them would re-serialize the query
+      parameters.add(new UrlSearchParam(innerSequence.get(0), innerSequence.get(1)));
+    }
+  }
+
+  @Override
+  public UrlSearchParams append(String name, String value) {
+    Objects.requireNonNull(name);
+    parameters.add(new UrlSearchParam(name, value));
+    updateSteps();
+    return this;
+  }
+
+  @Override
+  public Collection<String> delete(String name) {
+    Objects.requireNonNull(name);
+    Collection<String> result = new ArrayList<>();
+    Iterator<UrlSearchParam> it = parameters.iterator();
+    while (it.hasNext()) {
+      UrlSearchParam param = it.next();
+      if (Objects.equals(name, param.name())) {
+        it.remove();
+        result.add(param.value());
+      }
+    }
+    updateSteps();
+    return result;
+  }
+
+  @Override
+  public boolean delete(String name, String value) {
+    Objects.requireNonNull(name);
+    boolean result = false;
+    Iterator<UrlSearchParam> it = parameters.iterator();
+    while (it.hasNext()) {
+      UrlSearchParam param = it.next();
+      if (Objects.equals(name, param.name()) && Objects.equals(value, param.value())) {
+        it.remove();
+        result = true;
+      }
+    }
+    if (result) {
+      updateSteps();
+    }
+    return result;
+  }
+
+  /**
+   * Empty the list, then set it to the result of parsing the specified query, as done when the
+   * query of the url is set
+   *
+   * @param query the query to parse, or null to leave the list empty
+   */
+  void reinitialize(String query) {
+    parameters.clear();
+    if (query != null) {
+      init(query);
+    }
+  }
+
+  @Override
+  public UrlSearchParams entries(BiConsumer<String, String> consumer) {
+    Objects.requireNonNull(consumer);
+    parameters.forEach(param -> {
+      consumer.accept(param.name(), param.value());
+    });
+    return this;
+  }
+
+  @Override
+  public String get(String name) {
+    Objects.requireNonNull(name);
+    for (UrlSearchParam param : parameters) {
+      if (Objects.equals(name, param.name())) {
+        return param.value();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Collection<String> getAll(String name) {
+    Objects.requireNonNull(name);
+    Collection<String> result = new ArrayList<>();
+    for (UrlSearchParam param : parameters) {
+      if (Objects.equals(name, param.name())) {
+        result.add(param.value());
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean has(String name) {
+    Objects.requireNonNull(name);
+    for (UrlSearchParam param : parameters) {
+      if (Objects.equals(name, param.name())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean has(String name, String value) {
+    Objects.requireNonNull(name);
+    for (UrlSearchParam param : parameters) {
+      if (Objects.equals(name, param.name()) && Objects.equals(value, param.value())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public UrlSearchParams set(String name, String value) {
+    Objects.requireNonNull(name);
+    Objects.requireNonNull(value);
+    boolean hasFoundName = false;
+    Iterator<UrlSearchParam> paramIterator = parameters.iterator();
+    while (paramIterator.hasNext()) {
+      UrlSearchParam param = paramIterator.next();
+      if (Objects.equals(name, param.name())) {
+        if (hasFoundName) {
+          paramIterator.remove();
+        } else {
+          param.value(value);
+          hasFoundName = true;
+        }
+      }
+    }
+    if (hasFoundName) {
+      updateSteps();
+    } else {
+      append(name, value);
+    }
+    return this;
+  }
+
+  @Override
+  public UrlSearchParams sort() {
+    parameters.sort(Comparator.comparing(UrlSearchParam::name));
+    updateSteps();
+    return this;
+  }
+
+  @Override
+  public int size() {
+    return parameters.size();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder buffer = new StringBuilder();
+    SerializerHelper.serializeFormUrlEncoded(this.parameters, buffer);
+    return buffer.toString();
+  }
+
+  /**
+   * To update a URLSearchParams object query:
+   * <ul>
+   *   <li>1) If query’s URL object is null, then return.</li>
+   *   <li>2) Let serializedQuery be the serialization of query’s list.</li>
+   *   <li>3) If serializedQuery is the empty string, then set serializedQuery to null.</li>
+   *   <li>4) Set query’s URL object’s URL’s query to serializedQuery.</li>
+   *   <li>5) If serializedQuery is null, then potentially strip trailing spaces
+   *   from an opaque path with query’s URL object.</li>
+   *   <li></li>
+   *   <li></li>
+   * </ul>
+   */
+  void updateSteps() {
+    // 1
+    if (url == null) {
+      return;
+    }
+    // 2
+    StringBuilder buffer = new StringBuilder();
+    SerializerHelper.serializeFormUrlEncoded(this.parameters, buffer);
+    // 3
+    String serializedQuery = buffer.length() > 0 ? buffer.toString() : null;
+    // 4
+    url.query(serializedQuery);
+    // 5
+    if (serializedQuery == null) {
+      url.potentiallySkipTrailingSpaceFromAnOpaquePath();
+    }
+  }
+}
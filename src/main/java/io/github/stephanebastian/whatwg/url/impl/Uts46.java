@@ -0,0 +1,661 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Unicode IDNA Compatibility Processing [UTS46], with the options used by the domain to ASCII and
+ * domain to Unicode algorithms: CheckHyphens and Transitional_Processing set to false, CheckBidi
+ * and CheckJoiners set to true, UseSTD3ASCIIRules and VerifyDnsLength set to beStrict<br>
+ * <br>
+ * The mapping, normalization, bidi and joining tables are generated at build time from the Unicode
+ * data (see Uts46TableGenerator). They are loaded the first time a domain is processed, so that
+ * urls with plain ASCII hosts, which take the fast path of {@link UrlHelper}, never load them
+ */
+final class Uts46 {
+  // kinds of mapping, as generated
+  private static final int DELTA = 0;
+  private static final int STRING = 1;
+  private static final int IGNORED = 2;
+  // flag of the codepoints mapped to themselves, which normalization never combines or reorders
+  private static final int STABLE = 4;
+  private static final int DATA_SHIFT = 3;
+  private static final int STRING_LENGTH_BITS = 6;
+  // bidi classes, as generated
+  private static final int BIDI_L = 1;
+  private static final int BIDI_R = 2;
+  private static final int BIDI_AL = 3;
+  private static final int BIDI_AN = 4;
+  private static final int BIDI_EN = 5;
+  private static final int BIDI_ES = 6;
+  private static final int BIDI_CS = 7;
+  private static final int BIDI_ET = 8;
+  private static final int BIDI_ON = 9;
+  private static final int BIDI_BN = 10;
+  private static final int BIDI_NSM = 11;
+  private static final int L_MASK = 1 << BIDI_L;
+  private static final int L_R_AL_MASK = L_MASK | 1 << BIDI_R | 1 << BIDI_AL;
+  private static final int R_AL_AN_MASK = 1 << BIDI_R | 1 << BIDI_AL | 1 << BIDI_AN;
+  private static final int EN_AN_MASK = 1 << BIDI_EN | 1 << BIDI_AN;
+  private static final int L_EN_MASK = L_MASK | 1 << BIDI_EN;
+  private static final int R_AL_EN_AN_MASK = R_AL_AN_MASK | 1 << BIDI_EN;
+  private static final int ES_CS_ET_ON_BN_NSM_MASK = 1 << BIDI_ES | 1 << BIDI_CS | 1 << BIDI_ET
+      | 1 << BIDI_ON | 1 << BIDI_BN | 1 << BIDI_NSM;
+  // joining types, as generated
+  private static final int JOINING_D = 1;
+  private static final int JOINING_L = 2;
+  private static final int JOINING_R = 3;
+  private static final int JOINING_T = 4;
+  private static final int CCC_VIRAMA = 9;
+  private static final int ZWNJ = 0x200C;
+  private static final int ZWJ = 0x200D;
+  private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+  // Hangul syllables are composed algorithmically [UAX15]
+  private static final int HANGUL_S_BASE = 0xAC00;
+  private static final int HANGUL_L_BASE = 0x1100;
+  private static final int HANGUL_V_BASE = 0x1161;
+  private static final int HANGUL_T_BASE = 0x11A7;
+  private static final int HANGUL_L_COUNT = 19;
+  private static final int HANGUL_V_COUNT = 21;
+  private static final int HANGUL_T_COUNT = 28;
+  private static final int HANGUL_S_COUNT = HANGUL_L_COUNT * HANGUL_V_COUNT * HANGUL_T_COUNT;
+  private static final Tables TABLES = Tables.load();
+  private final boolean beStrict;
+  private final boolean toAscii;
+  // whether an error other than the ones ignored by the options was found
+  private boolean error;
+  // whether the domain is a bidi domain name, and whether all its labels satisfy the bidi rule
+  private boolean bidiDomain;
+  private boolean bidiRuleSatisfied = true;
+
+  private Uts46(boolean beStrict, boolean toAscii) {
+    this.beStrict = beStrict;
+    this.toAscii = toAscii;
+  }
+
+  /**
+   * Run Unicode ToASCII on the specified domain
+   *
+   * @param domain the domain to convert
+   * @param beStrict the value of UseSTD3ASCIIRules and VerifyDnsLength
+   * @return the converted domain, or null if an error was found
+   */
+  static String toAscii(String domain, boolean beStrict) {
+    Uts46 processing = new Uts46(beStrict, true);
+    String result = processing.process(domain);
+    return processing.error ? null : result;
+  }
+
+  /**
+   * Run Unicode ToUnicode on the specified domain. As per UTS46, the result is returned even when
+   * errors are found: invalid codepoints are then replaced with U+FFFD, and punycode labels that can
+   * not be converted are left as is
+   *
+   * @param domain the domain to convert
+   * @param beStrict the value of UseSTD3ASCIIRules
+   * @return the converted domain
+   */
+  static String toUnicode(String domain, boolean beStrict) {
+    return new Uts46(beStrict, false).process(domain);
+  }
+
+  /**
+   * Processing steps of UTS46, section 4, followed for ToASCII by the steps of section 4.2
+   */
+  private String process(String domain) {
+    // 1, 2 - map and normalize
+    String mapped = normalize(domain);
+    StringBuilder result = new StringBuilder(mapped.length() + 8);
+    // 3 - break into labels, a trailing empty label being the root label
+    int length = mapped.length();
+    int labelStart = 0;
+    for (int i = 0; i <= length; i++) {
+      if (i == length || mapped.charAt(i) == '.') {
+        if (i == length && labelStart == length && labelStart > 0) {
+          break;
+        }
+        // 4
+        processLabel(mapped.substring(labelStart, i), result);
+        if (i < length) {
+          result.append('.');
+        }
+        labelStart = i + 1;
+      }
+    }
+    // 4.1.8 - CheckBidi applies to the labels of a bidi domain name
+    if (bidiDomain && !bidiRuleSatisfied) {
+      error = true;
+    }
+    // ToASCII 3 - VerifyDnsLength, the root label excepted
+    if (toAscii && beStrict && result.length() >= 254
+        && (result.length() > 254 || result.charAt(253) != '.')) {
+      error = true;
+    }
+    return result.toString();
+  }
+
+  /**
+   * Convert/Validate a label, then convert it to ASCII for ToASCII. As ICU does, the codepoints that
+   * make a label invalid are replaced with U+FFFD, which only shows in the result of ToUnicode
+   */
+  private void processLabel(String label, StringBuilder result) {
+    String original = label;
+    boolean wasPunycode = false;
+    if (label.startsWith("xn--")) {
+      // "xn--" and labels ending with a hyphen-minus would decode to an ASCII label, of which they
+      // are not the canonical encoding
+      if (label.length() == 4 || (label.length() > 5 && label.endsWith("-"))) {
+        appendInvalidPunycodeLabel(label, result);
+        return;
+      }
+      // 4.1 - the decoded label must be valid and normalized, which a second mapping detects
+      String decoded = Punycode.decode(label.substring(4));
+      if (decoded == null || !normalize(decoded).equals(decoded)) {
+        appendInvalidPunycodeLabel(label, result);
+        return;
+      }
+      label = decoded;
+      wasPunycode = true;
+    }
+    // empty labels are not an error with VerifyDnsLength set to false, and they are ignored by the
+    // domain to ASCII algorithm otherwise
+    if (label.isEmpty()) {
+      return;
+    }
+    // 4.1 - validity criteria. Hyphens are not checked, CheckHyphens being false
+    String valid = validLabel(label);
+    if (valid != label) {
+      if (wasPunycode) {
+        appendInvalidPunycodeLabel(original, result);
+      } else {
+        error = true;
+        result.append(valid);
+      }
+      return;
+    }
+    // 4.1.8
+    checkBidi(label);
+    // 4.1.7
+    if ((label.indexOf(ZWNJ) >= 0 || label.indexOf(ZWJ) >= 0) && !isContextJValid(label)) {
+      error = true;
+    }
+    if (!toAscii) {
+      result.append(label);
+      return;
+    }
+    // ToASCII 2 - convert to punycode the labels that contain non-ASCII codepoints
+    int start = result.length();
+    if (wasPunycode) {
+      result.append(original);
+    } else if (isAscii(label)) {
+      result.append(label);
+    } else if (!Punycode.encode(label, result.append("xn--"))) {
+      error = true;
+    }
+    // ToASCII 3
+    if (beStrict && result.length() - start > 63) {
+      error = true;
+    }
+  }
+
+  /**
+   * Append a punycode label that can not be decoded. A label of LDH codepoints is marked with a
+   * trailing U+FFFD, so that ToUnicode never returns it as if it were valid
+   */
+  private void appendInvalidPunycodeLabel(String label, StringBuilder result) {
+    error = true;
+    boolean ldh = true;
+    int start = result.length();
+    result.append(label);
+    for (int i = start + 4; i < result.length(); i++) {
+      char c = result.charAt(i);
+      if (c >= 0x80 || (!InfraHelper.isAsciiAlphanumeric(c) && c != '-')) {
+        ldh = false;
+        if (beStrict && c < 0x80) {
+          result.setCharAt(i, (char) REPLACEMENT_CHARACTER);
+        }
+      }
+    }
+    if (ldh) {
+      result.append((char) REPLACEMENT_CHARACTER);
+    }
+  }
+
+  /**
+   * Validity criteria 4 to 6, the codepoints being valid with respect to the mapping of step 1
+   *
+   * @return the label itself if it is valid, a copy of it in which the invalid codepoints are
+   *         replaced with U+FFFD otherwise
+   */
+  private String validLabel(String label) {
+    StringBuilder valid = null;
+    for (int i = 0; i < label.length(); i++) {
+      char c = label.charAt(i);
+      // UseSTD3ASCIIRules: only LDH ASCII codepoints are valid, and no codepoint whose
+      // decomposition would contain other ASCII codepoints
+      if (c == '.' || (beStrict && (c < 0x80 ? !InfraHelper.isAsciiAlphanumeric(c) && c != '-'
+          : c == 0x2260 || c == 0x226E || c == 0x226F))) {
+        if (valid == null) {
+          valid = new StringBuilder(label);
+        }
+        valid.setCharAt(i, (char) REPLACEMENT_CHARACTER);
+      } else if (c == REPLACEMENT_CHARACTER && valid == null) {
+        valid = new StringBuilder(label);
+      }
+    }
+    // 5 - the label must not begin with a combining mark
+    int first = label.codePointAt(0);
+    if (TABLES.marks.get(first) != 0) {
+      if (valid == null) {
+        valid = new StringBuilder(label);
+      }
+      valid.replace(0, Character.charCount(first), "\uFFFD");
+    }
+    return valid == null ? label : valid.toString();
+  }
+
+  /**
+   * Check a label against the bidi rule [RFC5893], section 2. The rule only matters if the domain
+   * turns out to be a bidi domain name, that is if one of its labels contains a R, AL or AN
+   * codepoint
+   */
+  private void checkBidi(String label) {
+    int first = label.codePointAt(0);
+    int firstMask = 1 << TABLES.bidiClasses.get(first);
+    int afterFirst = Character.charCount(first);
+    // 1 - the first codepoint is L (LTR label), R or AL (RTL label)
+    if ((firstMask & ~L_R_AL_MASK) != 0) {
+      bidiRuleSatisfied = false;
+    }
+    // the last codepoint that is not a NSM, the first one if there is none after it
+    int lastMask = firstMask;
+    int end = label.length();
+    while (end > afterFirst) {
+      int codepoint = label.codePointBefore(end);
+      end -= Character.charCount(codepoint);
+      int bidiClass = TABLES.bidiClasses.get(codepoint);
+      if (bidiClass != BIDI_NSM) {
+        lastMask = 1 << bidiClass;
+        break;
+      }
+    }
+    // 3, 6 - how the label must end
+    if ((firstMask & L_MASK) != 0 ? (lastMask & ~L_EN_MASK) != 0
+        : (lastMask & ~R_AL_EN_AN_MASK) != 0) {
+      bidiRuleSatisfied = false;
+    }
+    int mask = firstMask | lastMask;
+    for (int i = afterFirst; i < end;) {
+      int codepoint = label.codePointAt(i);
+      i += Character.charCount(codepoint);
+      mask |= 1 << TABLES.bidiClasses.get(codepoint);
+    }
+    if ((firstMask & L_MASK) != 0) {
+      // 5 - the codepoints allowed in a LTR label
+      if ((mask & ~(L_EN_MASK | ES_CS_ET_ON_BN_NSM_MASK)) != 0) {
+        bidiRuleSatisfied = false;
+      }
+    } else {
+      // 2 - the codepoints allowed in a RTL label
+      if ((mask & ~(R_AL_EN_AN_MASK | ES_CS_ET_ON_BN_NSM_MASK)) != 0) {
+        bidiRuleSatisfied = false;
+      }
+      // 4 - EN and AN can not be mixed in a RTL label
+      if ((mask & EN_AN_MASK) == EN_AN_MASK) {
+        bidiRuleSatisfied = false;
+      }
+    }
+    if ((mask & R_AL_AN_MASK) != 0) {
+      bidiDomain = true;
+    }
+  }
+
+  /**
+   * The CONTEXTJ rules of the joiners [RFC5892], appendix A.1 and A.2
+   */
+  private static boolean isContextJValid(String label) {
+    for (int i = 0; i < label.length(); i++) {
+      char c = label.charAt(i);
+      if (c != ZWNJ && c != ZWJ) {
+        continue;
+      }
+      if (i == 0) {
+        return false;
+      }
+      // the joiner follows a virama
+      int before = label.codePointBefore(i);
+      if (TABLES.combiningClasses.get(before) == CCC_VIRAMA) {
+        continue;
+      }
+      if (c == ZWJ) {
+        return false;
+      }
+      // (Joining_Type:{L,D})(Joining_Type:T)* before the ZWNJ
+      int j = i - Character.charCount(before);
+      int joiningType = TABLES.joiningTypes.get(before);
+      while (joiningType == JOINING_T) {
+        if (j == 0) {
+          return false;
+        }
+        before = label.codePointBefore(j);
+        j -= Character.charCount(before);
+        joiningType = TABLES.joiningTypes.get(before);
+      }
+      if (joiningType != JOINING_L && joiningType != JOINING_D) {
+        return false;
+      }
+      // (Joining_Type:T)*(Joining_Type:{R,D}) after it
+      j = i + 1;
+      do {
+        if (j == label.length()) {
+          return false;
+        }
+        int after = label.codePointAt(j);
+        j += Character.charCount(after);
+        joiningType = TABLES.joiningTypes.get(after);
+      } while (joiningType == JOINING_T);
+      if (joiningType != JOINING_R && joiningType != JOINING_D) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Map the specified value with the UTS46 mapping table, disallowed codepoints being replaced with
+   * U+FFFD, then normalize the result to NFC
+   *
+   * @param value the value to map and normalize
+   * @return the mapped and normalized value
+   */
+  static String normalize(String value) {
+    int length = value.length();
+    // most domains are mapped and normalized already, uppercase ASCII letters aside: they are made
+    // of valid codepoints that normalization never combines or reorders with the ones before them
+    boolean hasUpperAlpha = false;
+    boolean stable = true;
+    for (int i = 0; i < length && stable;) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        hasUpperAlpha |= InfraHelper.isAsciiUpperAlpha(c);
+        i++;
+      } else {
+        int codepoint = value.codePointAt(i);
+        i += Character.charCount(codepoint);
+        stable = (TABLES.mapping.get(codepoint) & STABLE) != 0;
+      }
+    }
+    if (stable) {
+      return hasUpperAlpha ? asciiLowercase(value) : value;
+    }
+    // 1 - map, each mapping being fully decomposed
+    int[] codepoints = new int[length + 16];
+    int count = 0;
+    for (int i = 0; i < length;) {
+      int codepoint = value.codePointAt(i);
+      i += Character.charCount(codepoint);
+      if (count + (1 << STRING_LENGTH_BITS) > codepoints.length) {
+        codepoints = Arrays.copyOf(codepoints, codepoints.length * 2 + (1 << STRING_LENGTH_BITS));
+      }
+      if (codepoint < 0x80) {
+        codepoints[count++] =
+            InfraHelper.isAsciiUpperAlpha(codepoint) ? codepoint + 0x20 : codepoint;
+        continue;
+      }
+      int mapping = TABLES.mapping.get(codepoint);
+      switch (mapping & 3) {
+        case DELTA:
+          codepoints[count++] = codepoint + (mapping >> DATA_SHIFT);
+          break;
+        case STRING:
+          int offset = mapping >>> (DATA_SHIFT + STRING_LENGTH_BITS);
+          int end = offset + ((mapping >>> DATA_SHIFT) & ((1 << STRING_LENGTH_BITS) - 1));
+          for (int j = offset; j < end;) {
+            int mapped = Character.codePointAt(TABLES.mappingPool, j);
+            j += Character.charCount(mapped);
+            codepoints[count++] = mapped;
+          }
+          break;
+        case IGNORED:
+          break;
+        default:
+          codepoints[count++] = REPLACEMENT_CHARACTER;
+      }
+    }
+    // 2 - normalize to NFC: canonical ordering, then canonical composition [UAX15]
+    int[] combiningClasses = new int[count];
+    for (int i = 0; i < count; i++) {
+      int codepoint = codepoints[i];
+      int combiningClass = TABLES.combiningClasses.get(codepoint);
+      int j = i;
+      while (combiningClass != 0 && j > 0 && combiningClasses[j - 1] > combiningClass) {
+        codepoints[j] = codepoints[j - 1];
+        combiningClasses[j] = combiningClasses[j - 1];
+        j--;
+      }
+      codepoints[j] = codepoint;
+      combiningClasses[j] = combiningClass;
+    }
+    int starter = -1;
+    int lastCombiningClass = 0;
+    int composedCount = 0;
+    for (int i = 0; i < count; i++) {
+      int codepoint = codepoints[i];
+      int combiningClass = combiningClasses[i];
+      // the codepoint may combine with the last starter, from which it is not blocked
+      if (starter >= 0 && TABLES.combinesBackward.get(codepoint) != 0
+          && (composedCount == starter + 1
+              || (lastCombiningClass != 0 && lastCombiningClass < combiningClass))) {
+        int composite = compose(codepoints[starter], codepoint);
+        if (composite >= 0) {
+          codepoints[starter] = composite;
+          continue;
+        }
+      }
+      if (combiningClass == 0) {
+        starter = composedCount;
+      }
+      lastCombiningClass = combiningClass;
+      codepoints[composedCount++] = codepoint;
+    }
+    return new String(codepoints, 0, composedCount);
+  }
+
+  private static String asciiLowercase(String value) {
+    char[] chars = value.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      if (InfraHelper.isAsciiUpperAlpha(chars[i])) {
+        chars[i] += 0x20;
+      }
+    }
+    return new String(chars);
+  }
+
+  /**
+   * @return the primary composite of the specified codepoints, or -1 if there is none
+   */
+  private static int compose(int first, int second) {
+    int lIndex = first - HANGUL_L_BASE;
+    if (lIndex >= 0 && lIndex < HANGUL_L_COUNT) {
+      int vIndex = second - HANGUL_V_BASE;
+      return vIndex >= 0 && vIndex < HANGUL_V_COUNT
+          ? HANGUL_S_BASE + (lIndex * HANGUL_V_COUNT + vIndex) * HANGUL_T_COUNT
+          : -1;
+    }
+    int sIndex = first - HANGUL_S_BASE;
+    if (sIndex >= 0 && sIndex < HANGUL_S_COUNT && sIndex % HANGUL_T_COUNT == 0) {
+      int tIndex = second - HANGUL_T_BASE;
+      return tIndex > 0 && tIndex < HANGUL_T_COUNT ? first + tIndex : -1;
+    }
+    int index = Arrays.binarySearch(TABLES.compositionKeys, (long) first << 32 | second);
+    return index >= 0 ? TABLES.composites[index] : -1;
+  }
+
+  /**
+   * Values of a property of the codepoints, held as ranges of codepoints sharing the same value. An
+   * index of the ranges of each block of 256 codepoints narrows the lookup to a few ranges, none for
+   * the blocks that share a single value
+   */
+  private static final class RangeTable {
+    private static final int BLOCK_BITS = 8;
+    private final int[] starts;
+    private final int[] values;
+    // the index of the range holding the first codepoint of each block
+    private final int[] blocks;
+
+    private RangeTable(int[] starts, int[] values) {
+      this.starts = starts;
+      this.values = values;
+      this.blocks = new int[(Character.MAX_CODE_POINT >>> BLOCK_BITS) + 2];
+      int index = 0;
+      for (int block = 0; block < blocks.length; block++) {
+        int blockStart = block << BLOCK_BITS;
+        while (index + 1 < starts.length && starts[index + 1] <= blockStart) {
+          index++;
+        }
+        blocks[block] = index;
+      }
+    }
+
+    static RangeTable read(DataInputStream input, boolean intValues) throws IOException {
+      int count = input.readInt();
+      int[] starts = new int[count];
+      for (int i = 0; i < count; i++) {
+        starts[i] = input.readInt();
+      }
+      int[] values = new int[count];
+      for (int i = 0; i < count; i++) {
+        values[i] = intValues ? input.readInt() : input.readUnsignedByte();
+      }
+      return new RangeTable(starts, values);
+    }
+
+    int get(int codepoint) {
+      int block = codepoint >>> BLOCK_BITS;
+      int low = blocks[block];
+      int high = blocks[block + 1];
+      if (low == high) {
+        return values[low];
+      }
+      int index = Arrays.binarySearch(starts, low + 1, high + 1, codepoint);
+      return values[index >= 0 ? index : -index - 2];
+    }
+  }
+
+  /**
+   * The tables generated at build time, see Uts46TableGenerator for their layout
+   */
+  private static final class Tables {
+    private static final String RESOURCE = "uts46.dat";
+    private RangeTable mapping;
+    private char[] mappingPool;
+    private RangeTable combiningClasses;
+    private long[] compositionKeys;
+    private int[] composites;
+    // 1 for the codepoints that are the second codepoint of a composition, Hangul jamo included
+    private RangeTable combinesBackward;
+    private RangeTable bidiClasses;
+    private RangeTable joiningTypes;
+    private RangeTable marks;
+
+    static Tables load() {
+      InputStream resource = Uts46.class.getResourceAsStream(RESOURCE);
+      if (resource == null) {
+        throw new IllegalStateException("Unable to find " + RESOURCE);
+      }
+      try (DataInputStream input = new DataInputStream(new BufferedInputStream(resource))) {
+        Tables tables = new Tables();
+        // the Unicode version of the data
+        input.readUTF();
+        tables.mapping = RangeTable.read(input, true);
+        tables.mappingPool = new char[input.readInt()];
+        for (int i = 0; i < tables.mappingPool.length; i++) {
+          tables.mappingPool[i] = input.readChar();
+        }
+        tables.combiningClasses = RangeTable.read(input, false);
+        int count = input.readInt();
+        tables.compositionKeys = new long[count];
+        tables.composites = new int[count];
+        TreeSet<Integer> seconds = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+          int first = input.readInt();
+          int second = input.readInt();
+          tables.compositionKeys[i] = (long) first << 32 | second;
+          tables.composites[i] = input.readInt();
+          seconds.add(second);
+        }
+        for (int i = 0; i < HANGUL_V_COUNT; i++) {
+          seconds.add(HANGUL_V_BASE + i);
+        }
+        for (int i = 1; i < HANGUL_T_COUNT; i++) {
+          seconds.add(HANGUL_T_BASE + i);
+        }
+        tables.combinesBackward = combinesBackward(seconds);
+        tables.bidiClasses = RangeTable.read(input, false);
+        tables.joiningTypes = RangeTable.read(input, false);
+        tables.marks = RangeTable.read(input, false);
+        return tables;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to read " + RESOURCE, e);
+      }
+    }
+
+    /**
+     * @param seconds the codepoints that combine backward, in order
+     */
+    private static RangeTable combinesBackward(SortedSet<Integer> seconds) {
+      List<Integer> starts = new ArrayList<>();
+      List<Integer> values = new ArrayList<>();
+      starts.add(0);
+      values.add(0);
+      int previous = -1;
+      for (int second : seconds) {
+        // a new range starts unless the codepoint extends the current one
+        if (second != previous + 1) {
+          if (previous >= 0) {
+            starts.add(previous + 1);
+            values.add(0);
+          }
+          starts.add(second);
+          values.add(1);
+        }
+        previous = second;
+      }
+      starts.add(previous + 1);
+      values.add(0);
+      return new RangeTable(starts.stream().mapToInt(Integer::intValue).toArray(),
+          values.stream().mapToInt(Integer::intValue).toArray());
+    }
+  }
+}
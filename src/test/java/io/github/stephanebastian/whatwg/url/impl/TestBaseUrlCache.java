@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.BaseUrlCache;
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.ValidationError;
+import io.github.stephanebastian.whatwg.url.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestBaseUrlCache {
+  @Test
+  public void create() {
+    BaseUrlCache cache = BaseUrlCache.create(10);
+    Assertions.assertThat(cache.create("../path2?b=2", "http://www.myurl.com/dir/path1").href())
+        .isEqualTo("http://www.myurl.com/path2?b=2");
+    Assertions.assertThat(cache.create("path3", "http://www.myurl.com/dir/path1").href())
+        .isEqualTo("http://www.myurl.com/dir/path3");
+    Assertions.assertThat(cache.create("http://www.otherurl.com/", null).href())
+        .isEqualTo("http://www.otherurl.com/");
+    Assertions.assertThat(cache.size()).isEqualTo(1);
+    cache.clear();
+    Assertions.assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() {
+    BaseUrlCache cache = BaseUrlCache.create(1);
+    cache.create("path", "http://www.myurl1.com/");
+    cache.create("path", "http://www.myurl2.com/");
+    Assertions.assertThat(cache.size()).isEqualTo(1);
+    BaseUrlCache largerCache = BaseUrlCache.create(100);
+    for (int i = 0; i < 1000; i++) {
+      largerCache.create("path", "http://www.myurl" + i + ".com/");
+    }
+    Assertions.assertThat(largerCache.size()).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  public void failure() {
+    BaseUrlCache cache = BaseUrlCache.create(10);
+    Assertions.assertThat(cache.tryCreate("path", "http://[::1/").failure())
+        .isEqualTo(ValidationError.IPV6_UNCLOSED);
+    Assertions.assertThat(cache.tryCreate("path", "http://[::1/").failure())
+        .isEqualTo(ValidationError.IPV6_UNCLOSED);
+    Assertions.assertThat(cache.tryCreate("http://[::1/", "http://www.myurl.com/").failure())
+        .isEqualTo(ValidationError.IPV6_UNCLOSED);
+    Assertions.assertThatExceptionOfType(ValidationException.class)
+        .isThrownBy(() -> cache.create("path", "http://[::1/"));
+  }
+
+  @Test
+  public void baseUrlIsNotModified() {
+    BaseUrlCache cache = BaseUrlCache.create(10);
+    Url url1 = cache.create("?a=1", "http://www.myurl.com/dir/path1");
+    url1.pathname("/path2");
+    url1.hostname("www.otherurl.com");
+    Url url2 = cache.create("?b=2", "http://www.myurl.com/dir/path1");
+    Assertions.assertThat(url1.href()).isEqualTo("http://www.otherurl.com/path2?a=1");
+    Assertions.assertThat(url2.href()).isEqualTo("http://www.myurl.com/dir/path1?b=2");
+  }
+
+  @Test
+  public void concurrentAccess() throws Exception {
+    BaseUrlCache cache = BaseUrlCache.create(8);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          boolean result = true;
+          for (int j = 0; j < 2000; j++) {
+            int base = j % 16;
+            Url url = cache.create("../path" + j, "http://www.myurl" + base + ".com/dir/page");
+            url.pathname("/modified");
+            result &= url.href().equals("http://www.myurl" + base + ".com/modified");
+            result &= cache.create("path" + j, "http://www.myurl" + base + ".com/dir/page").href()
+                .equals("http://www.myurl" + base + ".com/dir/path" + j);
+          }
+          return result;
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        Assertions.assertThat(future.get()).isTrue();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assertions.assertThat(cache.size()).isLessThanOrEqualTo(8);
+  }
+}
@@ -36,6 +36,36 @@ public class TestCodePoints {
     Assertions.assertThat(input.remaining()).isEqualTo(7);
   }
 
+  @Test
+  public void codepointAtAsciiRange() {
+    Codepoints input = new Codepoints("  A B  ", 2, 3);
+    Assertions.assertThat(input.length()).isEqualTo(3);
+    Assertions.assertThat(input.remaining()).isEqualTo(3);
+    Assertions.assertThat(input.codepointAt(-1)).isEqualTo(CodepointHelper.CP_BOF);
+    Assertions.assertThat(input.codepointAt(0)).isEqualTo(65);
+    Assertions.assertThat(input.codepointAt(1)).isEqualTo(32);
+    Assertions.assertThat(input.codepointAt(2)).isEqualTo(66);
+    Assertions.assertThat(input.codepointAt(3)).isEqualTo(CodepointHelper.CP_EOF);
+    input.increasePointerByOne();
+    Assertions.assertThat(input.codepoint()).isEqualTo(32);
+    Assertions.assertThat(input.remainingStartsWith(66)).isTrue();
+    Assertions.assertThat(input.remainingStartsWith(66, CodepointHelper.CP_EOF)).isTrue();
+  }
+
+  @Test
+  public void remainingStartsWithTwoAsciiHexDigits() {
+    Codepoints input = new Codepoints("%2F%2G%a");
+    Assertions.assertThat(input.remainingStartsWithTwoAsciiHexDigits()).isTrue();
+    input.pointer(3);
+    Assertions.assertThat(input.codepoint()).isEqualTo(CodepointHelper.CP_PERCENT);
+    Assertions.assertThat(input.remainingStartsWithTwoAsciiHexDigits()).isFalse();
+    input.pointer(6);
+    Assertions.assertThat(input.remainingStartsWithTwoAsciiHexDigits()).isFalse();
+    input.startOver();
+    Assertions.assertThat(input.codepoint()).isEqualTo(CodepointHelper.CP_BOF);
+    Assertions.assertThat(input.remainingStartsWith(CodepointHelper.CP_PERCENT)).isTrue();
+  }
+
   @Test
   public void emptyInput() {
     Codepoints input = new Codepoints("");
@@ -49,43 +79,38 @@ public class TestCodePoints {
   }
 
   @Test
-  public void remainingMatch() {
+  public void remainingStartsWith() {
     Codepoints input = new Codepoints("A B C D");
     Assertions.assertThat(input.length()).isEqualTo(7);
     Assertions.assertThat(input.remaining()).isEqualTo(7);
     Assertions.assertThat(input.codepoint()).isEqualTo(65);
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> idx == 0 ? cp == 32 : cp == 66))
-        .isTrue();
+    Assertions.assertThat(input.remainingStartsWith(32, 66)).isTrue();
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(6);
     Assertions.assertThat(input.codepoint()).isEqualTo(32);
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> idx == 0 ? cp == 66 : cp == 32))
-        .isTrue();
+    Assertions.assertThat(input.remainingStartsWith(66, 32)).isTrue();
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(5);
     Assertions.assertThat(input.codepoint()).isEqualTo(66);
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> idx == 0 ? cp == 32 : cp == 67))
-        .isTrue();
+    Assertions.assertThat(input.remainingStartsWith(32, 67)).isTrue();
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(4);
     Assertions.assertThat(input.codepoint()).isEqualTo(32);
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> idx == 0 ? cp == 67 : cp == 32))
-        .isTrue();
+    Assertions.assertThat(input.remainingStartsWith(67, 32)).isTrue();
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(3);
     Assertions.assertThat(input.codepoint()).isEqualTo(67);
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> idx == 0 ? cp == 32 : cp == 68))
-        .isTrue();
+    Assertions.assertThat(input.remainingStartsWith(32, 68)).isTrue();
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(2);
     Assertions.assertThat(input.codepoint()).isEqualTo(32);
-    Assertions.assertThat(input.remainingMatch(1, (idx, cp) -> cp == 68)).isTrue();
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> idx == 0 ? cp == 68 : cp == 32))
-        .isFalse();
+    Assertions.assertThat(input.remainingStartsWith(68)).isTrue();
+    Assertions.assertThat(input.remainingStartsWith(68, 32)).isFalse();
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(1);
     Assertions.assertThat(input.codepoint()).isEqualTo(68);
-    Assertions.assertThat(input.remainingMatch(2, (idx, cp) -> true)).isFalse();
+    Assertions.assertThat(input.remainingStartsWith(CodepointHelper.CP_EOF)).isTrue();
+    Assertions.assertThat(input.peek(1)).isEqualTo(CodepointHelper.CP_EOF);
     input.increasePointerByOne();
     Assertions.assertThat(input.remaining()).isEqualTo(0);
     Assertions.assertThat(input.codepoint()).isEqualTo(CodepointHelper.CP_EOF);
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestCodepointHelper {
+  private static String asciiIn(int percentEncodeSet) {
+    StringBuilder result = new StringBuilder();
+    for (int codepoint = 0x20; codepoint < 0x7F; codepoint++) {
+      if (CodepointHelper.isInPercentEncodeSet(codepoint, percentEncodeSet)) {
+        result.appendCodePoint(codepoint);
+      }
+    }
+    return result.toString();
+  }
+
+  @Test
+  public void forbiddenCodepoints() {
+    Assertions.assertThat(CodepointHelper.isForbiddenHostCodePoint('|')).isTrue();
+    Assertions.assertThat(CodepointHelper.isForbiddenHostCodePoint('%')).isFalse();
+    Assertions.assertThat(CodepointHelper.isForbiddenHostCodePoint(0x7F)).isFalse();
+    Assertions.assertThat(CodepointHelper.isForbiddenHostCodePoint(0xE9)).isFalse();
+    Assertions.assertThat(CodepointHelper.isForbiddenDomainCodePoint('%')).isTrue();
+    Assertions.assertThat(CodepointHelper.isForbiddenDomainCodePoint(0x01)).isTrue();
+    Assertions.assertThat(CodepointHelper.isForbiddenDomainCodePoint(0x7F)).isTrue();
+    Assertions.assertThat(CodepointHelper.isForbiddenDomainCodePoint('a')).isFalse();
+    Assertions.assertThat(CodepointHelper.isForbiddenDomainCodePoint(CodepointHelper.CP_EOF))
+        .isFalse();
+  }
+
+  @Test
+  public void percentEncodeSets() {
+    Assertions.assertThat(asciiIn(CodepointHelper.C0_CONTROL_PERCENT_ENCODE_SET)).isEmpty();
+    Assertions.assertThat(asciiIn(CodepointHelper.FRAGMENT_PERCENT_ENCODE_SET))
+        .isEqualTo(" \"<>`");
+    Assertions.assertThat(asciiIn(CodepointHelper.QUERY_PERCENT_ENCODE_SET)).isEqualTo(" \"#<>");
+    Assertions.assertThat(asciiIn(CodepointHelper.SPECIAL_QUERY_PERCENT_ENCODE_SET))
+        .isEqualTo(" \"#'<>");
+    Assertions.assertThat(asciiIn(CodepointHelper.PATH_PERCENT_ENCODE_SET))
+        .isEqualTo(" \"#<>?`{}");
+    Assertions.assertThat(asciiIn(CodepointHelper.USERINFO_PERCENT_ENCODE_SET))
+        .isEqualTo(" \"#/:;<=>?@[\\]^`{|}");
+    Assertions.assertThat(asciiIn(CodepointHelper.COMPONENT_PERCENT_ENCODE_SET))
+        .isEqualTo(" \"#$%&+,/:;<=>?@[\\]^`{|}");
+    Assertions.assertThat(asciiIn(CodepointHelper.URL_ENCODED_PERCENT_ENCODE_SET))
+        .isEqualTo(" !\"#$%&'()+,/:;<=>?@[\\]^`{|}~");
+    // C0 controls, DELETE and non-ASCII codepoints belong to every percent-encode set
+    Assertions.assertThat(CodepointHelper.isInPercentEncodeSet(0x00,
+        CodepointHelper.FRAGMENT_PERCENT_ENCODE_SET)).isTrue();
+    Assertions.assertThat(
+        CodepointHelper.isInPercentEncodeSet(0x7F, CodepointHelper.PATH_PERCENT_ENCODE_SET))
+        .isTrue();
+    Assertions.assertThat(
+        CodepointHelper.isInPercentEncodeSet(0x203D, CodepointHelper.QUERY_PERCENT_ENCODE_SET))
+        .isTrue();
+    Assertions.assertThat(CodepointHelper.isInPercentEncodeSet(CodepointHelper.CP_EOF,
+        CodepointHelper.QUERY_PERCENT_ENCODE_SET)).isFalse();
+  }
+
+  @Test
+  public void urlCodepoints() {
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint('a')).isTrue();
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint('~')).isTrue();
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint('%')).isFalse();
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint('"')).isFalse();
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint(0x00E9)).isTrue();
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint(0xD800)).isFalse();
+    Assertions.assertThat(CodepointHelper.isUrlCodepoint(0xFDD0)).isFalse();
+  }
+}
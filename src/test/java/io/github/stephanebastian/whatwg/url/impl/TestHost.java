@@ -92,6 +92,43 @@ public class TestHost {
         }));
   }
 
+  @Test
+  public void ipv4LargeNumbers() {
+    Assertions.assertThat(HostParser.parseIpv4("4294967295", error -> {
+    })).hasToString("255.255.255.255");
+    Assertions.assertThat(HostParser.parseIpv4("037777777777", error -> {
+    })).hasToString("255.255.255.255");
+    Assertions.assertThat(HostParser.parseIpv4("0xFFFFFFFF", error -> {
+    })).hasToString("255.255.255.255");
+    Assertions.assertThat(HostParser.parseIpv4("1.0xffffff", error -> {
+    })).hasToString("1.255.255.255");
+    // numbers that do not fit in 32 bits are out of range, whatever their radix
+    String[] inputs = {"4294967296", "99999999999999999999999", "0x100000000",
+        "0xffffffffffffffffffff", "040000000000", "3331695321.71", "1.2.3.4294967299"};
+    for (String input : inputs) {
+      List<ValidationError> errors = new ArrayList<>();
+      Assertions.assertThat(HostParser.tryParseIpv4(input, errors::add)).isNull();
+      Assertions.assertThat(errors).endsWith(ValidationError.IPV4_OUT_OF_RANGE_PART);
+    }
+  }
+
+  @Test
+  public void ipv4ValidationErrors() {
+    List<ValidationError> errors = new ArrayList<>();
+    Assertions.assertThat(HostParser.tryParseIpv4("0x1.2.0300.4.", errors::add))
+        .hasToString("1.2.192.4");
+    Assertions.assertThat(errors).containsExactly(ValidationError.IPV4_EMPTY_PART,
+        ValidationError.IPV4_NON_DECIMAL_PART, ValidationError.IPV4_NON_DECIMAL_PART);
+    // too many parts is reported before the parts are parsed
+    errors.clear();
+    Assertions.assertThat(HostParser.tryParseIpv4("0x1.a.3.4.5", errors::add)).isNull();
+    Assertions.assertThat(errors).containsExactly(ValidationError.IPV4_TOO_MANY_PARTS);
+    errors.clear();
+    Assertions.assertThat(HostParser.tryParseIpv4("0x1.a.3.4", errors::add)).isNull();
+    Assertions.assertThat(errors).containsExactly(ValidationError.IPV4_NON_DECIMAL_PART,
+        ValidationError.IPV4_NON_NUMERIC_PART);
+  }
+
   @Test
   public void serializeUrlSearchParams() {
     Url url = Url.create("http://myhost.com?a=a2&b=b1&a=a1&c=c1");
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.HostPool;
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlParser;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestHostPool {
+  @Test
+  public void clear() {
+    HostPool pool = HostPool.create(10);
+    UrlParser parser = UrlParser.create(pool);
+    parser.parse("http://www.myurl.com/");
+    Assertions.assertThat(pool.size()).isEqualTo(1);
+    pool.clear();
+    Assertions.assertThat(pool.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void eviction() {
+    HostPool pool = HostPool.create(2);
+    UrlParser parser = UrlParser.create(pool);
+    UrlImpl url1 = (UrlImpl) parser.parse("http://www.myurl1.com/");
+    parser.parse("http://www.myurl2.com/");
+    parser.parse("http://www.myurl3.com/");
+    Assertions.assertThat(pool.size()).isEqualTo(2);
+    UrlImpl url4 = (UrlImpl) parser.parse("http://www.myurl1.com/");
+    Assertions.assertThat(url4.host).isNotSameAs(url1.host).isEqualTo(url1.host);
+  }
+
+  @Test
+  public void intern() {
+    HostPool pool = HostPool.create(10);
+    UrlParser parser1 = UrlParser.create(pool);
+    UrlParser parser2 = UrlParser.create(pool);
+    String[][] inputs = {{"http://www.myurl.com/path1", "https://WWW.MYURL.COM:8080/path2"},
+        {"http://127.0.0.1/path1", "ws://0x7f.1/path2"},
+        {"http://[::1]/path1", "http://[0:0::0:1]:8080/path2"}};
+    for (String[] input : inputs) {
+      UrlImpl url1 = (UrlImpl) parser1.parse(input[0]);
+      UrlImpl url2 = (UrlImpl) parser2.parse(input[1]);
+      Assertions.assertThat(url2.host).isSameAs(url1.host);
+    }
+    Assertions.assertThat(pool.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void notPooled() {
+    HostPool pool = HostPool.create(10);
+    UrlParser parser = UrlParser.create(pool);
+    UrlImpl url1 = (UrlImpl) parser.parse("myscheme://opaque/path1");
+    UrlImpl url2 = (UrlImpl) parser.parse("myscheme://opaque/path2");
+    Assertions.assertThat(url2.host).isNotSameAs(url1.host);
+    Assertions.assertThat(parser.canParse("http://www.myurl.com/")).isTrue();
+    Assertions.assertThat(pool.size()).isEqualTo(0);
+    // the parsers created without a pool do not pool hosts
+    Assertions.assertThat(((UrlImpl) Url.create("http://www.myurl.com/")).host)
+        .isNotSameAs(((UrlImpl) Url.create("http://www.myurl.com/")).host);
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.IdnaCache;
+import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TestIdnaCache {
+  @AfterEach
+  public void afterEach() {
+    IdnaCache.install(null);
+  }
+
+  @Test
+  public void domainToAscii() {
+    String[] inputs = {"http://bücher.de/", "http://‍.example/", "http://xn--a/",
+        "http://xn--zca.de/"};
+    UrlParseResult[] expected = new UrlParseResult[inputs.length];
+    for (int i = 0; i < inputs.length; i++) {
+      expected[i] = Url.tryCreate(inputs[i]);
+    }
+    IdnaCache cache = IdnaCache.create(10);
+    IdnaCache.install(cache);
+    Assertions.assertThat(IdnaCache.installed()).isSameAs(cache);
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < inputs.length; i++) {
+        UrlParseResult result = Url.tryCreate(inputs[i]);
+        Assertions.assertThat(result.isSuccess()).isEqualTo(expected[i].isSuccess());
+        if (result.isSuccess()) {
+          Assertions.assertThat(result.url().href()).isEqualTo(expected[i].url().href());
+        } else {
+          Assertions.assertThat(result.failure()).isEqualTo(expected[i].failure());
+        }
+      }
+    }
+    // failures are cached as well
+    Assertions.assertThat(cache.missCount()).isEqualTo(inputs.length);
+    Assertions.assertThat(cache.hitCount()).isEqualTo(inputs.length);
+    Assertions.assertThat(cache.size()).isEqualTo(inputs.length);
+    Assertions.assertThat(cache.evictionCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void domainToUnicode() {
+    IdnaCache cache = IdnaCache.create(10);
+    IdnaCache.install(cache);
+    String expected = UrlHelper.uts46DomainToUnicode("xn--zca.de", false);
+    Assertions.assertThat(UrlHelper.domainToUnicode("xn--zca.de", false)).isEqualTo(expected);
+    Assertions.assertThat(UrlHelper.domainToUnicode("xn--zca.de", false)).isEqualTo(expected);
+    // the strictness of the conversion is part of the key
+    UrlHelper.domainToUnicode("xn--zca.de", true);
+    Assertions.assertThat(cache.missCount()).isEqualTo(2);
+    Assertions.assertThat(cache.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void eviction() {
+    IdnaCache cache = IdnaCache.create(2);
+    IdnaCache.install(cache);
+    UrlHelper.tryDomainToAscii("bücher.de", false);
+    UrlHelper.tryDomainToAscii("bücher.com", false);
+    UrlHelper.tryDomainToAscii("bücher.net", false);
+    Assertions.assertThat(cache.size()).isEqualTo(2);
+    Assertions.assertThat(cache.evictionCount()).isEqualTo(1);
+    cache.clear();
+    Assertions.assertThat(cache.size()).isEqualTo(0);
+    Assertions.assertThat(cache.evictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void notInstalled() {
+    IdnaCache cache = IdnaCache.create(10);
+    Url.tryCreate("http://bücher.de/");
+    Assertions.assertThat(IdnaCache.installed()).isNull();
+    Assertions.assertThat(cache.missCount()).isEqualTo(0);
+    // plain ASCII domains are not cached
+    IdnaCache.install(cache);
+    Url.create("http://www.example.com/");
+    Assertions.assertThat(cache.missCount()).isEqualTo(0);
+  }
+}
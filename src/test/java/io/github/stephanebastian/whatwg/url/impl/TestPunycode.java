@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class TestPunycode {
+  /**
+   * The punycode labels output by the UTS46 conversions of the test files
+   */
+  static Collection<String> punycodeLabelTestData() {
+    Collection<String> result = new ArrayList<>();
+    Collection<Map<String, Object>> testData = new ArrayList<>(TestUrl.idnaTestData());
+    testData.addAll(TestUrl.toAsciiTestData());
+    for (Map<String, Object> next : testData) {
+      String output = (String) next.get("output");
+      if (output != null) {
+        for (String label : output.split("\\.")) {
+          if (label.startsWith("xn--")) {
+            result.add(label.substring(4));
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void decode() {
+    Assertions.assertThat(Punycode.decode("fa-hia")).isEqualTo("faß");
+    Assertions.assertThat(Punycode.decode("FA-HIA")).isEqualTo("FAß");
+    Assertions.assertThat(Punycode.decode("zca")).isEqualTo("ß");
+    Assertions.assertThat(Punycode.decode("abc-")).isEqualTo("abc");
+    Assertions.assertThat(Punycode.decode("")).isEqualTo("");
+  }
+
+  @Test
+  public void decodeInvalid() {
+    // not a digit
+    Assertions.assertThat(Punycode.decode("-zca")).isNull();
+    Assertions.assertThat(Punycode.decode("a-z_a")).isNull();
+    // truncated
+    Assertions.assertThat(Punycode.decode("a-9")).isNull();
+    // not basic before the delimiter
+    Assertions.assertThat(Punycode.decode("é-zca")).isNull();
+    // overflow
+    Assertions.assertThat(Punycode.decode("99999999999")).isNull();
+    // a surrogate code point
+    Assertions.assertThat(Punycode.decode(Punycode.encode("\ud800"))).isNull();
+  }
+
+  @Test
+  public void encode() {
+    Assertions.assertThat(Punycode.encode("faß")).isEqualTo("fa-hia");
+    Assertions.assertThat(Punycode.encode("ß")).isEqualTo("zca");
+    Assertions.assertThat(Punycode.encode("abc")).isEqualTo("abc-");
+    Assertions.assertThat(Punycode.encode("")).isEqualTo("");
+    // a code point outside of the basic multilingual plane
+    Assertions.assertThat(Punycode.decode(Punycode.encode("a😀b"))).isEqualTo("a😀b");
+  }
+
+  /**
+   * Samples of RFC 3492, section 7.1
+   */
+  @Test
+  public void rfc3492Samples() {
+    String[][] samples = {
+        {"ليهمابتكلموشعربي؟", "egbpdaj6bu4bxfgehfvwxn"},
+        {"他们为什么不说中文", "ihqwcrb4cv8a8dqg056pqjye"},
+        {"Pročprostěnemluvíčesky", "Proprostnemluvesky-uyb24dma41a"},
+        {"パフィーdeルンバ", "de-jg4avhby1noc0d"},
+        {"そのスピードで", "d9juau41awczczp"},
+        {"-> $1.00 <-", "-> $1.00 <--"}};
+    for (String[] sample : samples) {
+      Assertions.assertThat(Punycode.encode(sample[0])).isEqualTo(sample[1]);
+      Assertions.assertThat(Punycode.decode(sample[1])).isEqualTo(sample[0]);
+    }
+  }
+
+  /**
+   * The labels expected by the test files are canonical, decoding and encoding them again is the
+   * identity
+   */
+  @ParameterizedTest
+  @MethodSource("punycodeLabelTestData")
+  public void roundTrip(String label) {
+    String decoded = Punycode.decode(label);
+    Assertions.assertThat(decoded).isNotNull();
+    Assertions.assertThat(Punycode.encode(decoded)).isEqualTo(label);
+  }
+}
@@ -15,6 +15,7 @@
 package io.github.stephanebastian.whatwg.url.impl;
 
 import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlParseResult;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,6 +25,20 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 public class TestUrl {
+  private static void readProperties(Url url) {
+    url.hash();
+    url.host();
+    url.hostname();
+    url.href();
+    url.origin();
+    url.password();
+    url.pathname();
+    url.port();
+    url.protocol();
+    url.search();
+    url.username();
+  }
+
   private static void assertUrlProperties(Url url, Map<String, String> expectedProperties) {
     for (String name : expectedProperties.keySet()) {
       String expectedValue = expectedProperties.get(name);
@@ -211,6 +226,107 @@ public class TestUrl {
     }
   }
 
+  /**
+   * canParse runs the state machine in a validate-only mode, which must agree with a full parse
+   *
+   * @param testData
+   */
+  @ParameterizedTest
+  @MethodSource("urlParserTestData")
+  public void canParse(Map<String, Object> testData) {
+    String input = (String) testData.get("input");
+    String base = (String) testData.get("base");
+    Assertions.assertThat(Url.canParse(input, base))
+        .isEqualTo(Url.tryCreate(input, base).isSuccess());
+  }
+
+  /**
+   * A frozen url has the properties of the url it has been created from, and is not changed when
+   * that url is changed
+   *
+   * @param testData
+   */
+  @ParameterizedTest
+  @MethodSource("urlParserTestData")
+  public void freeze(Map<String, Object> testData) {
+    String input = (String) testData.get("input");
+    String base = (String) testData.get("base");
+    UrlParseResult result = Url.tryCreate(input, base);
+    if (result.isSuccess()) {
+      Url url = result.url();
+      String href = url.href();
+      String searchParams = url.searchParams().toString();
+      Url frozenUrl = url.freeze();
+      Assertions.assertThat(frozenUrl.freeze()).isSameAs(frozenUrl);
+      Assertions.assertThat(frozenUrl.href()).isEqualTo(href);
+      Assertions.assertThat(frozenUrl.hash()).isEqualTo(url.hash());
+      Assertions.assertThat(frozenUrl.host()).isEqualTo(url.host());
+      Assertions.assertThat(frozenUrl.hostname()).isEqualTo(url.hostname());
+      Assertions.assertThat(frozenUrl.origin()).isEqualTo(url.origin());
+      Assertions.assertThat(frozenUrl.password()).isEqualTo(url.password());
+      Assertions.assertThat(frozenUrl.pathname()).isEqualTo(url.pathname());
+      Assertions.assertThat(frozenUrl.port()).isEqualTo(url.port());
+      Assertions.assertThat(frozenUrl.protocol()).isEqualTo(url.protocol());
+      Assertions.assertThat(frozenUrl.search()).isEqualTo(url.search());
+      Assertions.assertThat(frozenUrl.username()).isEqualTo(url.username());
+      Assertions.assertThat(frozenUrl.searchParams().toString()).isEqualTo(searchParams);
+      Assertions.assertThat(frozenUrl.validationErrors())
+          .containsExactlyElementsOf(url.validationErrors());
+      Assertions.assertThatExceptionOfType(UnsupportedOperationException.class)
+          .isThrownBy(() -> frozenUrl.hash("fragment"));
+      url.hash("fragment");
+      Assertions.assertThat(frozenUrl.href()).isEqualTo(href);
+    }
+  }
+
+  /**
+   * A frozen url resolves inputs as the url it has been created from. It is parsed back to a url
+   * the first time it is used as a base url, which must not leak into the urls resolved against it
+   *
+   * @param testData
+   */
+  @ParameterizedTest
+  @MethodSource("urlParserTestData")
+  public void parseAgainstFrozenBase(Map<String, Object> testData) {
+    String input = (String) testData.get("input");
+    String base = (String) testData.get("base");
+    UrlParseResult parsedBase = Url.tryCreate(base);
+    if (base != null && parsedBase.isSuccess()) {
+      Url frozenBase = parsedBase.url().freeze();
+      UrlParseResult expected = Url.tryCreate(input, base);
+      for (int i = 0; i < 2; i++) {
+        UrlParseResult result = Url.tryCreateRelativeTo(input, frozenBase);
+        Assertions.assertThat(result.isSuccess()).isEqualTo(expected.isSuccess());
+        if (expected.isSuccess()) {
+          Assertions.assertThat(result.url().href()).isEqualTo(expected.url().href());
+          Assertions.assertThat(Url.createRelativeTo(input, frozenBase).href())
+              .isEqualTo(expected.url().href());
+          // the resolved url is modified, the frozen url is not
+          result.url().pathname("/changed");
+        }
+      }
+      Assertions.assertThat(frozenBase.href()).isEqualTo(parsedBase.url().href());
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("urlParserTestData")
+  public void parseAgainstParsedBase(Map<String, Object> testData) {
+    String input = (String) testData.get("input");
+    String base = (String) testData.get("base");
+    UrlParseResult parsedBase = Url.tryCreate(base);
+    if (base != null && parsedBase.isSuccess()) {
+      String parsedBaseHref = parsedBase.url().href();
+      UrlParseResult expected = Url.tryCreate(input, base);
+      UrlParseResult result = Url.tryCreateRelativeTo(input, parsedBase.url());
+      Assertions.assertThat(result.isSuccess()).isEqualTo(expected.isSuccess());
+      if (expected.isSuccess()) {
+        Assertions.assertThat(result.url().href()).isEqualTo(expected.url().href());
+      }
+      Assertions.assertThat(parsedBase.url().href()).isEqualTo(parsedBaseHref);
+    }
+  }
+
   @ParameterizedTest
   @MethodSource("testSettersData")
   public void testSetters(Map<String, Object> testData) {
@@ -222,6 +338,8 @@ public class TestUrl {
     // parse the url
     Url parsedUrl = Url.create(href);
     Assertions.assertThat(parsedUrl).isNotNull();
+    // read the properties first, the setter must invalidate the memoized serializations
+    readProperties(parsedUrl);
     switch (setterName) {
       case "hash":
         parsedUrl.hash(newValue);
@@ -259,4 +377,47 @@ public class TestUrl {
     }
     assertUrlProperties(parsedUrl, expected);
   }
+
+  /**
+   * A wither gives the same result as the setter, without modifying the original url, mutable or
+   * frozen
+   *
+   * @param testData
+   */
+  @ParameterizedTest
+  @MethodSource("testSettersData")
+  public void withers(Map<String, Object> testData) {
+    String setterName = (String) testData.get("setterName");
+    String href = (String) testData.get("href");
+    String newValue = (String) testData.get("new_value");
+    Map<String, String> expected = (Map<String, String>) testData.get("expected");
+    Url parsedUrl = Url.create(href);
+    String parsedHref = parsedUrl.href();
+    for (Url url : new Url[] {parsedUrl, parsedUrl.freeze()}) {
+      Url derivedUrl;
+      switch (setterName) {
+        case "hash":
+          derivedUrl = url.withHash(newValue);
+          break;
+        case "host":
+          derivedUrl = url.withHost(newValue);
+          break;
+        case "pathname":
+          derivedUrl = url.withPathname(newValue);
+          break;
+        case "search":
+          derivedUrl = url.withSearch(newValue);
+          break;
+        default:
+          return;
+      }
+      Assertions.assertThat(derivedUrl).isNotSameAs(url);
+      assertUrlProperties(derivedUrl, expected);
+      Assertions.assertThat(url.href()).isEqualTo(parsedHref);
+    }
+    // the path is shared until one of the urls modifies it
+    Url derivedUrl = parsedUrl.withHash("fragment");
+    derivedUrl.pathname("/derived");
+    Assertions.assertThat(parsedUrl.href()).isEqualTo(parsedHref);
+  }
 }
@@ -300,14 +300,14 @@ public class TestUrlApi {
     Assertions.assertThat(url.host()).isEqualTo("www.myurl.com");
     Assertions.assertThat(url.validationErrors()).isEmpty();
     url.host("[2001:0db8:0000:85a3:0000:0000:ac1f:8001]");
-    Assertions.assertThat(url.host()).isEqualTo("[2001:db8:0:ffff85a3::ffffac1f:ffff8001]");
+    Assertions.assertThat(url.host()).isEqualTo("[2001:db8:0:85a3::ac1f:8001]");
     Assertions.assertThat(url.validationErrors()).isEmpty();
     // short ipv6
     url = Url.create("http://www.myurl.com");
     Assertions.assertThat(url.host()).isEqualTo("www.myurl.com");
     Assertions.assertThat(url.validationErrors()).isEmpty();
     url.host("[fe00::1]");
-    Assertions.assertThat(url.host()).isEqualTo("[fffffe00::1]");
+    Assertions.assertThat(url.host()).isEqualTo("[fe00::1]");
     Assertions.assertThat(url.validationErrors()).isEmpty();
   }
 
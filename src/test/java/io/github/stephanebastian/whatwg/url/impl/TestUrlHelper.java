@@ -15,6 +15,7 @@
 package io.github.stephanebastian.whatwg.url.impl;
 
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import org.assertj.core.api.Assertions;
@@ -30,6 +31,47 @@ public class TestUrlHelper {
     return (Collection<Map<String, Object>>) (Object) result;
   }
 
+  static Collection<String> domainToAsciiTestData() {
+    Collection<String> result = new ArrayList<>();
+    for (Map<String, Object> testData : TestUrl.toAsciiTestData()) {
+      result.add((String) testData.get("input"));
+    }
+    for (Map<String, Object> testData : TestUrl.idnaTestData()) {
+      result.add((String) testData.get("input"));
+    }
+    // a label longer than 63 and a domain longer than 253
+    String longLabel = String.join("", Collections.nCopies(70, "a"));
+    String longDomain = String.join(".", Collections.nCopies(80, "abcd"));
+    result.addAll(Arrays.asList("www.example.com", "WWW.Example.COM", "a..b", ".a.", "-a-.b--c",
+        "0x7f.1", "xn--", "Xn--a.b", "a.XN--zca", "axn--b", longLabel + ".com", longDomain));
+    return result;
+  }
+
+  /**
+   * The domains qualifying for the ASCII fast path must be converted as UTS46 converts them
+   */
+  @ParameterizedTest
+  @MethodSource("domainToAsciiTestData")
+  public void ldhDomainToAscii(String domain) {
+    String result = UrlHelper.tryLdhDomainToAscii(domain);
+    if (result != null) {
+      Assertions.assertThat(result).isEqualTo(UrlHelper.uts46DomainToAscii(domain, false));
+    }
+  }
+
+  @Test
+  public void ldhDomainToAsciiQualifyingDomains() {
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("www.example.com"))
+        .isEqualTo("www.example.com");
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("WWW.Example-1.COM"))
+        .isEqualTo("www.example-1.com");
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("a.xn--zca")).isNull();
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("XN--zca.a")).isNull();
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("a_b.com")).isNull();
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("fa\u00df.de")).isNull();
+    Assertions.assertThat(UrlHelper.tryLdhDomainToAscii("")).isNull();
+  }
+
   @Test
   public void hasLeadingOrTrailingC0ControlOrSpace() {
     Assertions
@@ -69,7 +111,7 @@ public class TestUrlHelper {
   public void percentEncodeAfterEncodingIso2022JP() {
     Charset charset = Charset.forName("ISO-2022-JP");
     Assertions.assertThat(UrlHelper.percentEncodeAfterEncoding(charset.newEncoder(), "¥",
-        CodepointHelper::isInUserInfoPercentEncodeSet, false)).isEqualTo("%1B(J%5C%1B(B");
+        CodepointHelper.USERINFO_PERCENT_ENCODE_SET, false)).isEqualTo("%1B(J%5C%1B(B");
     // TODO this test used to fail with the expected value of '"%1B(J\\%1B(B"'. Note that this value
     // comes
     // from an example of the WhatWg url spec. However the result I get (which is '%1B(J\%1B(B') is
@@ -92,7 +134,7 @@ public class TestUrlHelper {
         int[] scalarCodepoints = InfraHelper.toScalarCodepoints(input.codePoints().toArray());
         String scalarInput = new String(scalarCodepoints, 0, scalarCodepoints.length);
         String encodedValue = UrlHelper.percentEncodeAfterEncoding(charset.newEncoder(),
-            scalarInput, CodepointHelper::isSpecialQueryPercentEncodeSet, false);
+            scalarInput, CodepointHelper.SPECIAL_QUERY_PERCENT_ENCODE_SET, false);
         Assertions.assertThat(encodedValue).isEqualTo(expectedEncodedResult);
       }
     }
@@ -102,14 +144,14 @@ public class TestUrlHelper {
   public void percentEncodeAfterEncodingShiftJIS() {
     Charset charset = Charset.forName("Shift_JIS");
     Assertions.assertThat(UrlHelper.percentEncodeAfterEncoding(charset.newEncoder(), " ",
-        CodepointHelper::isInUserInfoPercentEncodeSet, false)).isEqualTo("%20");
+        CodepointHelper.USERINFO_PERCENT_ENCODE_SET, false)).isEqualTo("%20");
     Assertions.assertThat(UrlHelper.percentEncodeAfterEncoding(charset.newEncoder(), "≡",
-        CodepointHelper::isInUserInfoPercentEncodeSet, false)).isEqualTo("%81%DF");
+        CodepointHelper.USERINFO_PERCENT_ENCODE_SET, false)).isEqualTo("%81%DF");
     Assertions.assertThat(UrlHelper.percentEncodeAfterEncoding(charset.newEncoder(), "‽",
-        CodepointHelper::isInUserInfoPercentEncodeSet, false)).isEqualTo("%26%238253%3B");
+        CodepointHelper.USERINFO_PERCENT_ENCODE_SET, false)).isEqualTo("%26%238253%3B");
     Assertions
         .assertThat(UrlHelper.percentEncodeAfterEncoding(charset.newEncoder(), "1+1 ≡ 2%20‽",
-            CodepointHelper::isInUserInfoPercentEncodeSet, true))
+            CodepointHelper.USERINFO_PERCENT_ENCODE_SET, true))
         .isEqualTo("1+1+%81%DF+2%20%26%238253%3B");
   }
 
@@ -168,14 +210,14 @@ public class TestUrlHelper {
   @Test
   public void utf8PercentEncode() {
     Assertions
-        .assertThat(UrlHelper.utf8PercentEncode("≡", CodepointHelper::isInUserInfoPercentEncodeSet))
+        .assertThat(UrlHelper.utf8PercentEncode("≡", CodepointHelper.USERINFO_PERCENT_ENCODE_SET))
         .isEqualTo("%E2%89%A1");
     Assertions
-        .assertThat(UrlHelper.utf8PercentEncode("‽", CodepointHelper::isInUserInfoPercentEncodeSet))
+        .assertThat(UrlHelper.utf8PercentEncode("‽", CodepointHelper.USERINFO_PERCENT_ENCODE_SET))
         .isEqualTo("%E2%80%BD");
     Assertions
         .assertThat(
-            UrlHelper.utf8PercentEncode("Say what‽", CodepointHelper::isInUserInfoPercentEncodeSet))
+            UrlHelper.utf8PercentEncode("Say what‽", CodepointHelper.USERINFO_PERCENT_ENCODE_SET))
         .isEqualTo("Say%20what%E2%80%BD");
   }
 
@@ -186,10 +228,42 @@ public class TestUrlHelper {
     for (int i = 0; i < test.length();) {
       int cp = test.codePointAt(i);
       String s = UrlHelper.utf8PercentEncode(StandardCharsets.UTF_8.newEncoder(), cp,
-          CodepointHelper::isInUserInfoPercentEncodeSet);
+          CodepointHelper.USERINFO_PERCENT_ENCODE_SET);
       result.append(s);
       i += Character.charCount(cp);
     }
     Assertions.assertThat(result.toString()).isEqualTo("%F0%9F%92%A9");
   }
+
+  @Test
+  public void utf8PercentEncodeSurrogatePair2() {
+    Assertions.assertThat(
+        UrlHelper.utf8PercentEncode("a💩b", CodepointHelper.USERINFO_PERCENT_ENCODE_SET))
+        .isEqualTo("a%F0%9F%92%A9b");
+    // a lone surrogate is not a scalar value
+    Assertions.assertThat(
+        UrlHelper.utf8PercentEncode("a\uD83Db", CodepointHelper.USERINFO_PERCENT_ENCODE_SET))
+        .isEqualTo("a%EF%BF%BDb");
+  }
+
+  @Test
+  public void utf8PercentEncodeInline() {
+    CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    int[] percentEncodeSets = {CodepointHelper.C0_CONTROL_PERCENT_ENCODE_SET,
+        CodepointHelper.FRAGMENT_PERCENT_ENCODE_SET, CodepointHelper.PATH_PERCENT_ENCODE_SET,
+        CodepointHelper.USERINFO_PERCENT_ENCODE_SET,
+        CodepointHelper.URL_ENCODED_PERCENT_ENCODE_SET};
+    int[] codepoints = {0x00, 0x20, 0x25, 0x41, 0x7E, 0x7F, 0x80, 0xE9, 0x7FF, 0x800, 0x203D,
+        0xFFFD, 0xFFFF, 0x10000, 0x1F4A9, 0x10FFFF};
+    for (int percentEncodeSet : percentEncodeSets) {
+      for (int codepoint : codepoints) {
+        String expected = UrlHelper.utf8PercentEncode(encoder, codepoint, percentEncodeSet);
+        StringBuilder result = new StringBuilder();
+        UrlHelper.utf8PercentEncode(codepoint, percentEncodeSet, result);
+        Assertions.assertThat(result.toString()).isEqualTo(expected);
+        Assertions.assertThat(UrlHelper.utf8PercentEncode(codepoint, percentEncodeSet))
+            .isEqualTo(expected);
+      }
+    }
+  }
 }
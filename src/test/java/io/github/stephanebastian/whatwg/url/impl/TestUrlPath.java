@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import io.github.stephanebastian.whatwg.url.Url;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestUrlPath {
+  @Test
+  public void addAndRemoveLast() {
+    UrlPath path = new UrlPath();
+    path.add("a");
+    path.add("");
+    path.add(new StringBuilder("bc"));
+    Assertions.assertThat(path.size()).isEqualTo(3);
+    Assertions.assertThat(path.get(0)).isEqualTo("a");
+    Assertions.assertThat(path.isSegmentEmpty(1)).isTrue();
+    Assertions.assertThat(path.get(2)).isEqualTo("bc");
+    Assertions.assertThat(path.toString()).isEqualTo("/a//bc");
+    path.removeLast();
+    Assertions.assertThat(path.toString()).isEqualTo("/a/");
+    path.add("d");
+    Assertions.assertThat(path.toString()).isEqualTo("/a//d");
+    Assertions.assertThat(path.get(2)).isEqualTo("d");
+    path.removeLast();
+    path.removeLast();
+    path.removeLast();
+    Assertions.assertThat(path.isEmpty()).isTrue();
+    Assertions.assertThat(path.toString()).isEqualTo("");
+  }
+
+  @Test
+  public void appendToLastSegment() {
+    UrlPath path = new UrlPath();
+    path.appendToLastSegment("opaque");
+    path.appendToLastSegment(" path  ");
+    Assertions.assertThat(path.size()).isEqualTo(1);
+    Assertions.assertThat(path.get(0)).isEqualTo("opaque path  ");
+    path.stripTrailingSpaces();
+    Assertions.assertThat(path.get(0)).isEqualTo("opaque path");
+    StringBuilder output = new StringBuilder();
+    path.appendSegmentTo(0, output);
+    Assertions.assertThat(output.toString()).isEqualTo("opaque path");
+  }
+
+  @Test
+  public void compact() {
+    UrlPath path = new UrlPath();
+    path.add("a");
+    path.add("b");
+    Assertions.assertThat(path.compact()).isSameAs(path);
+    Assertions.assertThat(path.get(0)).isEqualTo("a");
+    Assertions.assertThat(path.get(1)).isEqualTo("b");
+    path.removeLast();
+    path.removeLast();
+    Assertions.assertThat(path.compact()).isSameAs(UrlPath.EMPTY);
+    path.add("");
+    Assertions.assertThat(path.compact()).isSameAs(UrlPath.ROOT);
+  }
+
+  @Test
+  public void copy() {
+    UrlPath path = new UrlPath();
+    path.add("a");
+    path.add("b");
+    UrlPath copy = new UrlPath(path);
+    copy.removeLast();
+    copy.add("c");
+    Assertions.assertThat(path.toString()).isEqualTo("/a/b");
+    Assertions.assertThat(copy.toString()).isEqualTo("/a/c");
+    Assertions.assertThat(UrlPath.ROOT.toString()).isEqualTo("/");
+    Assertions.assertThat(UrlPath.EMPTY.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void sharedPath() {
+    UrlImpl base = (UrlImpl) Url.create("http://www.myurl.com/a/b/c");
+    UrlImpl url = (UrlImpl) Url.createRelativeTo("d/../e?x", base);
+    Assertions.assertThat(url.pathname()).isEqualTo("/a/b/e");
+    Assertions.assertThat(base.pathname()).isEqualTo("/a/b/c");
+    Assertions.assertThat(((UrlImpl) Url.create("http://www.myurl.com")).path)
+        .isSameAs(UrlPath.ROOT);
+  }
+}
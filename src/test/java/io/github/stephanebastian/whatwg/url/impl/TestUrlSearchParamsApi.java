@@ -15,6 +15,7 @@
 package io.github.stephanebastian.whatwg.url.impl;
 
 import io.github.stephanebastian.whatwg.url.Url;
+import io.github.stephanebastian.whatwg.url.UrlSearchParams;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -51,6 +52,28 @@ public class TestUrlSearchParamsApi {
     Assertions.assertThat(url.href()).isEqualTo("http://www.myurl.com/path1");
   }
 
+  @Test
+  public void sameObject() {
+    Url url = Url.create("http://www.myurl.com/path1?a=1");
+    UrlSearchParams searchParams = url.searchParams();
+    // setting the href updates the list of the search params in place
+    url.href("http://www.myurl.com/path2?b=2");
+    Assertions.assertThat(url.searchParams()).isSameAs(searchParams);
+    Assertions.assertThat(searchParams.toString()).isEqualTo("b=2");
+    searchParams.append("c", "3");
+    Assertions.assertThat(url.href()).isEqualTo("http://www.myurl.com/path2?b=2&c=3");
+    // so does setting the search
+    url.search("?d=4");
+    Assertions.assertThat(url.searchParams()).isSameAs(searchParams);
+    Assertions.assertThat(searchParams.toString()).isEqualTo("d=4");
+    url.search("");
+    Assertions.assertThat(searchParams.size()).isEqualTo(0);
+    searchParams.append("e", "5");
+    Assertions.assertThat(url.href()).isEqualTo("http://www.myurl.com/path2?e=5");
+    url.href("http://www.myurl.com/path3");
+    Assertions.assertThat(searchParams.size()).isEqualTo(0);
+  }
+
   @Test
   public void entries() {
     Url url = Url.create("http://www.myurl.com/path1?a=1&b=2&a=2");
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 - Stephane Bastian - stephane.bastian.dev@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package io.github.stephanebastian.whatwg.url.impl;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestUts46 {
+  @Test
+  public void normalize() {
+    // mapped and normalized already
+    Assertions.assertThat(Uts46.normalize("bücher.例え")).isEqualTo("bücher.例え");
+    Assertions.assertThat(Uts46.normalize("Bücher.DE")).isEqualTo("bücher.de");
+    // mapped
+    Assertions.assertThat(Uts46.normalize("BÜCHER")).isEqualTo("bücher");
+    Assertions.assertThat(Uts46.normalize("ｅｘａｍｐｌｅ。ｃｏｍ")).isEqualTo("example.com");
+    Assertions.assertThat(Uts46.normalize("a\u00adb")).isEqualTo("ab");
+    Assertions.assertThat(Uts46.normalize("a\ue000b")).isEqualTo("a\ufffdb");
+    Assertions.assertThat(Uts46.normalize("a\ud800b")).isEqualTo("a\ufffdb");
+    // composed
+    Assertions.assertThat(Uts46.normalize("bu\u0308cher")).isEqualTo("bücher");
+    Assertions.assertThat(Uts46.normalize("\u1112\u1161\u11ab")).isEqualTo("\ud55c");
+    Assertions.assertThat(Uts46.normalize("\ud558\u11ab")).isEqualTo("\ud55c");
+    // reordered: dot below (220) before circumflex (230)
+    Assertions.assertThat(Uts46.normalize("a\u0302\u0323")).isEqualTo("\u1ead");
+    Assertions.assertThat(Uts46.normalize("q\u0302\u0323")).isEqualTo("q\u0323\u0302");
+  }
+
+  @Test
+  public void toAscii() {
+    Assertions.assertThat(Uts46.toAscii("Bücher.de", false)).isEqualTo("xn--bcher-kva.de");
+    Assertions.assertThat(Uts46.toAscii("xn--bcher-kva.de", false)).isEqualTo("xn--bcher-kva.de");
+    Assertions.assertThat(Uts46.toAscii("a_b.de", false)).isEqualTo("a_b.de");
+    Assertions.assertThat(Uts46.toAscii("a_b.de", true)).isNull();
+    // not a canonical punycode label
+    Assertions.assertThat(Uts46.toAscii("xn--abc-.de", false)).isNull();
+    Assertions.assertThat(Uts46.toAscii("xn--.de", false)).isNull();
+    // a leading combining mark
+    Assertions.assertThat(Uts46.toAscii("\u0308a.de", false)).isNull();
+    // bidi: no label can start with a digit once the domain is a bidi domain name
+    Assertions.assertThat(Uts46.toAscii("1.de", false)).isEqualTo("1.de");
+    Assertions.assertThat(Uts46.toAscii("1.א", false)).isNull();
+    Assertions.assertThat(Uts46.toAscii("aא", false)).isNull();
+    // joiners
+    Assertions.assertThat(Uts46.toAscii("\u0915\u094d\u200d", false)).isEqualTo("xn--11b6iy14e");
+    Assertions.assertThat(Uts46.toAscii("a\u200db", false)).isNull();
+    // lengths
+    String label = new String(new char[64]).replace('\0', 'a');
+    Assertions.assertThat(Uts46.toAscii(label, false)).isEqualTo(label);
+    Assertions.assertThat(Uts46.toAscii(label, true)).isNull();
+  }
+
+  @Test
+  public void toUnicode() {
+    Assertions.assertThat(Uts46.toUnicode("xn--bcher-kva.DE", false)).isEqualTo("bücher.de");
+    // invalid codepoints are replaced with U+FFFD, as done by ICU
+    Assertions.assertThat(Uts46.toUnicode("\u0308a", false)).isEqualTo("\ufffda");
+    Assertions.assertThat(Uts46.toUnicode("a_b", true)).isEqualTo("a\ufffdb");
+    Assertions.assertThat(Uts46.toUnicode("xn--abc-", false)).isEqualTo("xn--abc-\ufffd");
+  }
+}